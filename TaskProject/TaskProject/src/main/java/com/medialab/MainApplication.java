@@ -2,6 +2,7 @@ package com.medialab;
 
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.layout.*;
@@ -9,9 +10,15 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.geometry.Insets;
 import javafx.collections.FXCollections;
+import javafx.collections.transformation.SortedList;
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.SimpleStringProperty;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 // Models
 import com.medialab.models.Task;
@@ -22,45 +29,103 @@ import com.medialab.models.TaskStatus;
 import com.medialab.models.Reminder.ReminderType;
 
 // Service
+import com.medialab.services.AsyncTaskService;
+import com.medialab.services.TaskCounters;
+import com.medialab.services.TaskQuery;
 import com.medialab.services.TaskService;
 
 
 public class MainApplication extends Application {
     private TaskService taskService;
+    private AsyncTaskService asyncService;
     private VBox summarySection;
+    private HBox loadingSection;
     private TabPane functionSection;
     private TableView<Task> taskTable;
     private TableView<Category> categoryTable;
     private TableView<Priority> priorityTable;
     private TableView<Reminder> reminderTable;
+    private static final int SEARCH_PAGE_SIZE = 200;
+    // Continues a service future on the JavaFX Application Thread
+    private static final Executor FX_THREAD = Platform::runLater;
 
     @Override
     public void start(Stage primaryStage) {
         taskService = TaskService.getInstance();
-        taskService.loadData();
+        asyncService = new AsyncTaskService(taskService);
+        // Service calls run on the background thread; counter changes must reach the bound labels on this one
+        taskService.getCounters().notifyOn(FX_THREAD);
 
         VBox root = new VBox(10);
         root.setPadding(new Insets(10));
 
+        createLoadingSection();
         createSummarySection();
         createFunctionSection();
 
-        root.getChildren().addAll(summarySection, functionSection);
+        root.getChildren().addAll(loadingSection, summarySection, functionSection);
 
         Scene scene = new Scene(root, 800, 600);
         primaryStage.setTitle("MediaLab Assistant");
         primaryStage.setScene(scene);
-
-        checkDelayedTasks();
-        updateAllTables();
         primaryStage.show();
+
+        // The window is shown right away; the tables fill in once the data has been read
+        whenReady(asyncService.loadData(), loaded -> {
+            taskService.addReminderListener(reminder -> Platform.runLater(() -> showReminder(reminder)));
+            // Statuses change at midnight; the counters follow on their own, the task table needs a reload
+            taskService.addDayRolloverListener((today, newlyDelayed) -> {
+                if (!newlyDelayed.isEmpty()) {
+                    Platform.runLater(this::updateTaskTable);
+                }
+            });
+            // Started on the service thread: scheduling every reminder would stall the window here
+            whenReady(CompletableFuture.allOf(
+                    asyncService.startAutosave(Duration.ofSeconds(2), 500, Duration.ofSeconds(30)),
+                    asyncService.startReminderScheduler(),
+                    asyncService.startDayRollover()), started -> { });
+            root.getChildren().remove(loadingSection);
+            updateAllTables();
+            checkDelayedTasks();
+        });
+    }
+
+    // Runs the action on the JavaFX Application Thread once the future completes, or reports its failure
+    private <T> void whenReady(CompletableFuture<T> future, Consumer<T> action) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                showError("Operation failed: " + (error.getCause() != null ? error.getCause() : error).getMessage());
+            } else {
+                action.accept(result);
+            }
+        }, FX_THREAD);
+    }
+
+    private void createLoadingSection() {
+        loadingSection = new HBox(10);
+        loadingSection.setPadding(new Insets(10));
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setPrefSize(24, 24);
+        loadingSection.getChildren().addAll(progress, new Label("Loading tasks..."));
     }
 
+    // All four tables show the same version of the store
     private void updateAllTables() {
-        updateTaskTable();
-        updateCategoryTable();
-        updatePriorityTable();
-        updateReminderTable();
+        whenReady(asyncService.snapshot(), snapshot -> {
+            showItems(taskTable, snapshot.getTasks());
+            showItems(categoryTable, snapshot.getCategories());
+            showItems(priorityTable, snapshot.getPriorities());
+            showItems(reminderTable, snapshot.getReminders());
+        });
+    }
+
+    // Service lists are shared read-only snapshots; a SortedList over them lets the column headers
+    // sort the view without copying the list
+    private static <T> void showItems(TableView<T> table, List<T> items) {
+        SortedList<T> sorted = new SortedList<>(FXCollections.observableList(items));
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
     }
 
     private void createSummarySection() {
@@ -68,10 +133,16 @@ public class MainApplication extends Application {
         summarySection.getStyleClass().add("summary-section");
         summarySection.setPadding(new Insets(10));
 
-        Label totalTasksLabel = new Label("Total Tasks: " + taskService.getTotalTasksCount());
-        Label completedTasksLabel = new Label("Completed Tasks: " + taskService.getCompletedTasksCount());
-        Label delayedTasksLabel = new Label("Delayed Tasks: " + taskService.getDelayedTasksCount());
-        Label upcomingTasksLabel = new Label("Tasks Due in 7 Days: " + taskService.getUpcomingTasksCount());
+        // Bound to the service counters, so the labels follow every add/edit/delete
+        TaskCounters counters = taskService.getCounters();
+        Label totalTasksLabel = new Label();
+        totalTasksLabel.textProperty().bind(Bindings.concat("Total Tasks: ", counters.totalProperty()));
+        Label completedTasksLabel = new Label();
+        completedTasksLabel.textProperty().bind(Bindings.concat("Completed Tasks: ", counters.completedProperty()));
+        Label delayedTasksLabel = new Label();
+        delayedTasksLabel.textProperty().bind(Bindings.concat("Delayed Tasks: ", counters.delayedProperty()));
+        Label upcomingTasksLabel = new Label();
+        upcomingTasksLabel.textProperty().bind(Bindings.concat("Tasks Due in 7 Days: ", counters.upcomingProperty()));
 
         summarySection.getChildren().addAll(
                 totalTasksLabel, completedTasksLabel, delayedTasksLabel, upcomingTasksLabel
@@ -316,14 +387,21 @@ public class MainApplication extends Application {
         TextField titleSearch = new TextField();
         ComboBox<Category> categorySearch = new ComboBox<>();
         ComboBox<Priority> prioritySearch = new ComboBox<>();
+        ComboBox<TaskStatus> statusSearch = new ComboBox<>(
+                FXCollections.observableArrayList(TaskStatus.values())
+        );
         Button searchBtn = new Button("Search");
+        Button moreBtn = new Button("Show More");
+        Label resultCount = new Label();
 
-        searchGrid.add(new Label("Title:"), 0, 0);
+        searchGrid.add(new Label("Text:"), 0, 0);
         searchGrid.add(titleSearch, 1, 0);
         searchGrid.add(new Label("Category:"), 0, 1);
         searchGrid.add(categorySearch, 1, 1);
         searchGrid.add(new Label("Priority:"), 0, 2);
         searchGrid.add(prioritySearch, 1, 2);
+        searchGrid.add(new Label("Status:"), 0, 3);
+        searchGrid.add(statusSearch, 1, 3);
 
         TableView<Task> resultTable = new TableView<>();
 
@@ -343,28 +421,49 @@ public class MainApplication extends Application {
 
         resultTable.getColumns().addAll(titleCol, priorityCol, categoryCol, deadlineCol);
 
+        // Results are fetched one page at a time, sorted by deadline
         searchBtn.setOnAction(e -> {
-            String title = titleSearch.getText().isEmpty() ? null : titleSearch.getText();
-            Category category = categorySearch.getValue();
-            Priority priority = prioritySearch.getValue();
-
-            List<Task> results = taskService.searchTasks(title, category, priority);
-            resultTable.setItems(FXCollections.observableArrayList(results));
+            resultTable.setItems(FXCollections.observableArrayList());
+            showSearchPage(titleSearch.getText(), categorySearch.getValue(), prioritySearch.getValue(),
+                    statusSearch.getValue(), resultTable, resultCount, moreBtn);
         });
+        moreBtn.setOnAction(e -> showSearchPage(titleSearch.getText(), categorySearch.getValue(),
+                prioritySearch.getValue(), statusSearch.getValue(), resultTable, resultCount, moreBtn));
+        moreBtn.setDisable(true);
 
-        searchView.getChildren().addAll(searchGrid, searchBtn, resultTable);
+        searchView.getChildren().addAll(searchGrid, searchBtn, resultCount, resultTable, moreBtn);
 
         // Update the ComboBoxes when the search view is shown
         functionSection.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
             if (newTab != null && newTab.getText().equals("Search")) {
-                categorySearch.setItems(FXCollections.observableArrayList(taskService.getCategories()));
-                prioritySearch.setItems(FXCollections.observableArrayList(taskService.getPriorities()));
+                whenReady(asyncService.getCategories(),
+                        categories -> categorySearch.setItems(FXCollections.observableArrayList(categories)));
+                whenReady(asyncService.getPriorities(),
+                        priorities -> prioritySearch.setItems(FXCollections.observableArrayList(priorities)));
             }
         });
 
         return searchView;
     }
 
+    private void showSearchPage(String text, Category category, Priority priority, TaskStatus status,
+                                TableView<Task> resultTable, Label resultCount, Button moreBtn) {
+        moreBtn.setDisable(true);
+        TaskQuery query = TaskQuery.builder()
+                .text(text)
+                .category(category)
+                .priority(priority)
+                .status(status)
+                .sortBy(TaskQuery.SortKey.DEADLINE)
+                .page(resultTable.getItems().size(), SEARCH_PAGE_SIZE)
+                .build();
+        whenReady(asyncService.query(query), page -> {
+            resultTable.getItems().addAll(page.getItems());
+            resultCount.setText("Showing " + resultTable.getItems().size() + " of " + page.getTotalCount());
+            moreBtn.setDisable(!page.hasMore());
+        });
+    }
+
     private void showAddTaskDialog() {
         Dialog<Task> dialog = new Dialog<>();
         dialog.setTitle("Add New Task");
@@ -376,12 +475,9 @@ public class MainApplication extends Application {
 
         TextField titleField = new TextField();
         TextArea descField = new TextArea();
-        ComboBox<Category> categoryCombo = new ComboBox<>(
-                FXCollections.observableArrayList(taskService.getCategories())
-        );
-        ComboBox<Priority> priorityCombo = new ComboBox<>(
-                FXCollections.observableArrayList(taskService.getPriorities())
-        );
+        ComboBox<Category> categoryCombo = new ComboBox<>();
+        ComboBox<Priority> priorityCombo = new ComboBox<>();
+        fillCategoryAndPriorityCombos(categoryCombo, priorityCombo);
         DatePicker deadlinePicker = new DatePicker();
         ComboBox<TaskStatus> statusCombo = new ComboBox<>(
                 FXCollections.observableArrayList(TaskStatus.values())
@@ -420,9 +516,7 @@ public class MainApplication extends Application {
         });
 
         dialog.showAndWait().ifPresent(task -> {
-            taskService.addTask(task);
-            updateTaskTable();
-            updateSummarySection();
+            whenReady(asyncService.addTask(task), done -> updateTaskTable());
         });
     }
 
@@ -453,11 +547,12 @@ public class MainApplication extends Application {
         });
 
         dialog.showAndWait().ifPresent(category -> {
-            taskService.addCategory(category);
-            updateCategoryTable();
+            whenReady(asyncService.addCategory(category), done -> updateCategoryTable());
         });
     }
     private void showEditTaskDialog(Task task) {
+        // The dialog edits a detached copy; the save only goes through if nobody changed the task meanwhile
+        long expectedVersion = task.getVersion();
         Dialog<Task> dialog = new Dialog<>();
         dialog.setTitle("Edit Task");
 
@@ -468,15 +563,12 @@ public class MainApplication extends Application {
 
         TextField titleField = new TextField(task.getTitle());
         TextArea descField = new TextArea(task.getDescription());
-        ComboBox<Category> categoryCombo = new ComboBox<>(
-                FXCollections.observableArrayList(taskService.getCategories())
-        );
+        ComboBox<Category> categoryCombo = new ComboBox<>();
         categoryCombo.setValue(task.getCategory());
 
-        ComboBox<Priority> priorityCombo = new ComboBox<>(
-                FXCollections.observableArrayList(taskService.getPriorities())
-        );
+        ComboBox<Priority> priorityCombo = new ComboBox<>();
         priorityCombo.setValue(task.getPriority());
+        fillCategoryAndPriorityCombos(categoryCombo, priorityCombo);
 
         DatePicker deadlinePicker = new DatePicker(task.getDeadline());
         ComboBox<TaskStatus> statusCombo = new ComboBox<>(
@@ -504,25 +596,30 @@ public class MainApplication extends Application {
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
-                task.setTitle(titleField.getText());
-                task.setDescription(descField.getText());
-                task.setCategory(categoryCombo.getValue());
-                task.setPriority(priorityCombo.getValue());
-                task.setDeadline(deadlinePicker.getValue());
-                task.setStatus(statusCombo.getValue());
-                return task;
+                Task edited = new Task(task.getCompactId());
+                edited.setTitle(titleField.getText());
+                edited.setDescription(descField.getText());
+                edited.setCategory(categoryCombo.getValue());
+                edited.setPriority(priorityCombo.getValue());
+                edited.setDeadline(deadlinePicker.getValue());
+                edited.setStatus(statusCombo.getValue());
+                return edited;
             }
             return null;
         });
 
         dialog.showAndWait().ifPresent(updatedTask -> {
-            taskService.updateTask(updatedTask);
-            updateTaskTable();
-            updateSummarySection();
+            whenReady(asyncService.updateTask(updatedTask, expectedVersion), applied -> {
+                if (!applied) {
+                    showConflict("task");
+                }
+                updateTaskTable();
+            });
         });
     }
 
     private void confirmAndDeleteTask(Task task) {
+        long expectedVersion = task.getVersion();
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Task");
         alert.setHeaderText("Delete Task");
@@ -530,13 +627,18 @@ public class MainApplication extends Application {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                taskService.deleteTask(task);
-                updateTaskTable();
-                updateSummarySection();
+                whenReady(asyncService.deleteTask(task, expectedVersion), applied -> {
+                    if (!applied) {
+                        showConflict("task");
+                    }
+                    updateTaskTable();
+                    updateReminderTable();
+                });
             }
         });
     }
     private void showEditCategoryDialog(Category category) {
+        long expectedVersion = category.getVersion();
         Dialog<Category> dialog = new Dialog<>();
         dialog.setTitle("Edit Category");
 
@@ -555,15 +657,20 @@ public class MainApplication extends Application {
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
-                category.setName(nameField.getText());
-                return category;
+                Category edited = new Category(category.getCompactId());
+                edited.setName(nameField.getText());
+                return edited;
             }
             return null;
         });
 
         dialog.showAndWait().ifPresent(updatedCategory -> {
-            taskService.updateCategory(updatedCategory);
-            updateCategoryTable();
+            whenReady(asyncService.updateCategory(updatedCategory, expectedVersion), applied -> {
+                if (!applied) {
+                    showConflict("category");
+                }
+                updateAllTables();
+            });
         });
     }
 
@@ -575,26 +682,10 @@ public class MainApplication extends Application {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                taskService.deleteCategory(category);
-                updateCategoryTable();
-                updateTaskTable();
-                updateSummarySection();
+                whenReady(asyncService.deleteCategory(category), done -> updateAllTables());
             }
         });
     }
-    private void updateSummarySection() {
-        summarySection.getChildren().clear();
-        summarySection.setPadding(new Insets(10));
-
-        Label totalTasksLabel = new Label("Total Tasks: " + taskService.getTotalTasksCount());
-        Label completedTasksLabel = new Label("Completed Tasks: " + taskService.getCompletedTasksCount());
-        Label delayedTasksLabel = new Label("Delayed Tasks: " + taskService.getDelayedTasksCount());
-        Label upcomingTasksLabel = new Label("Tasks Due in 7 Days: " + taskService.getUpcomingTasksCount());
-
-        summarySection.getChildren().addAll(
-                totalTasksLabel, completedTasksLabel, delayedTasksLabel, upcomingTasksLabel
-        );
-    }
     private void showAddPriorityDialog() {
         Dialog<Priority> dialog = new Dialog<>();
         dialog.setTitle("Add Priority");
@@ -623,8 +714,7 @@ public class MainApplication extends Application {
         });
 
         dialog.showAndWait().ifPresent(priority -> {
-            taskService.addPriority(priority);
-            updatePriorityTable();
+            whenReady(asyncService.addPriority(priority), done -> updatePriorityTable());
         });
     }
 
@@ -634,6 +724,7 @@ public class MainApplication extends Application {
             return;
         }
 
+        long expectedVersion = priority.getVersion();
         Dialog<Priority> dialog = new Dialog<>();
         dialog.setTitle("Edit Priority");
 
@@ -652,15 +743,21 @@ public class MainApplication extends Application {
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
-                priority.setName(nameField.getText());
-                return priority;
+                Priority edited = new Priority(priority.getCompactId());
+                edited.setName(nameField.getText());
+                edited.setDefault(priority.isDefault());
+                return edited;
             }
             return null;
         });
 
         dialog.showAndWait().ifPresent(updatedPriority -> {
-            taskService.updatePriority(updatedPriority);
-            updatePriorityTable();
+            whenReady(asyncService.updatePriority(updatedPriority, expectedVersion), applied -> {
+                if (!applied) {
+                    showConflict("priority");
+                }
+                updateAllTables();
+            });
         });
     }
 
@@ -677,35 +774,38 @@ public class MainApplication extends Application {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                taskService.deletePriority(priority);
-                updatePriorityTable();
-                updateTaskTable();
+                whenReady(asyncService.deletePriority(priority), done -> updateAllTables());
             }
         });
     }
     private void updateTaskTable() {
         if (taskTable != null) {
-            taskTable.setItems(FXCollections.observableArrayList(taskService.getAllTasks()));
+            whenReady(asyncService.getAllTasks(), tasks -> showItems(taskTable, tasks));
         }
     }
 
     private void updateCategoryTable() {
         if (categoryTable != null) {
-            categoryTable.setItems(FXCollections.observableArrayList(taskService.getCategories()));
+            whenReady(asyncService.getCategories(), categories -> showItems(categoryTable, categories));
         }
     }
 
     private void updatePriorityTable() {
         if (priorityTable != null) {
-            priorityTable.setItems(FXCollections.observableArrayList(taskService.getPriorities()));
+            whenReady(asyncService.getPriorities(), priorities -> showItems(priorityTable, priorities));
         }
     }
 
     private void updateReminderTable() {
         if (reminderTable != null) {
-            reminderTable.setItems(FXCollections.observableArrayList(taskService.getAllReminders()));
+            whenReady(asyncService.getAllReminders(), reminders -> showItems(reminderTable, reminders));
         }
     }
+
+    private void fillCategoryAndPriorityCombos(ComboBox<Category> categoryCombo, ComboBox<Priority> priorityCombo) {
+        whenReady(asyncService.getCategories(), categories -> categoryCombo.getItems().setAll(categories));
+        whenReady(asyncService.getPriorities(), priorities -> priorityCombo.getItems().setAll(priorities));
+    }
     private void showAddReminderDialog() {
         Dialog<Reminder> dialog = new Dialog<>();
         dialog.setTitle("Add Reminder");
@@ -715,13 +815,24 @@ public class MainApplication extends Application {
         grid.setVgap(10);
         grid.setPadding(new Insets(20, 150, 10, 10));
 
-        ComboBox<Task> taskCombo = new ComboBox<>(
-                FXCollections.observableArrayList(taskService.getUncompletedTasks())
-        );
+        ComboBox<Task> taskCombo = new ComboBox<>();
+        whenReady(asyncService.getUncompletedTasks(), tasks -> taskCombo.getItems().setAll(tasks));
         ComboBox<ReminderType> typeCombo = new ComboBox<>(
                 FXCollections.observableArrayList(ReminderType.values())
         );
         DatePicker datePicker = new DatePicker();
+        // Only custom reminders take a picked date; the others fire a fixed time before the deadline
+        Runnable showFireDate = () -> {
+            ReminderType type = typeCombo.getValue();
+            boolean custom = type == null || type == ReminderType.CUSTOM;
+            datePicker.setDisable(!custom);
+            if (!custom) {
+                Task task = taskCombo.getValue();
+                datePicker.setValue(task == null ? null : type.fireDate(task.getDeadline(), null));
+            }
+        };
+        typeCombo.valueProperty().addListener((obs, oldType, newType) -> showFireDate.run());
+        taskCombo.valueProperty().addListener((obs, oldTask, newTask) -> showFireDate.run());
 
         grid.add(new Label("Task:"), 0, 0);
         grid.add(taskCombo, 1, 0);
@@ -740,15 +851,14 @@ public class MainApplication extends Application {
                 Reminder reminder = new Reminder();
                 reminder.setTask(taskCombo.getValue());
                 reminder.setType(typeCombo.getValue());
-                reminder.setReminderDate(datePicker.getValue());
+                reminder.setReminderDate(typeCombo.getValue().fireDate(taskCombo.getValue().getDeadline(), datePicker.getValue()));
                 return reminder;
             }
             return null;
         });
 
         dialog.showAndWait().ifPresent(reminder -> {
-            taskService.addReminder(reminder);
-            updateReminderTable();
+            whenReady(asyncService.addReminder(reminder), done -> updateReminderTable());
         });
     }
 
@@ -760,49 +870,44 @@ public class MainApplication extends Application {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                taskService.deleteReminder(reminder);
-                updateReminderTable();
+                whenReady(asyncService.deleteReminder(reminder), done -> updateReminderTable());
             }
         });
     }
 
+    // The date only counts for CUSTOM reminders; the other types are checked against the date derived from the deadline
     private boolean validateReminderInput(Task task, ReminderType type, LocalDate date) {
-        if (task == null || type == null || date == null) {
+        if (task == null || type == null || (type == ReminderType.CUSTOM && date == null)) {
             showError("All fields are required.");
             return false;
         }
 
         LocalDate taskDeadline = task.getDeadline();
-        if (date.isAfter(taskDeadline)) {
+        if (taskDeadline == null) {
+            showError("The task has no deadline.");
+            return false;
+        }
+        if (type == ReminderType.CUSTOM && date.isAfter(taskDeadline)) {
             showError("Reminder date cannot be after the task deadline.");
             return false;
         }
 
-        switch (type) {
-            case ONE_DAY:
-                if (taskDeadline.minusDays(1).isBefore(LocalDate.now())) {
+        if (type.fireDate(taskDeadline, date).isBefore(LocalDate.now())) {
+            switch (type) {
+                case ONE_DAY:
                     showError("One day reminder is not possible for this task's deadline.");
-                    return false;
-                }
-                break;
-            case ONE_WEEK:
-                if (taskDeadline.minusWeeks(1).isBefore(LocalDate.now())) {
+                    break;
+                case ONE_WEEK:
                     showError("One week reminder is not possible for this task's deadline.");
-                    return false;
-                }
-                break;
-            case ONE_MONTH:
-                if (taskDeadline.minusMonths(1).isBefore(LocalDate.now())) {
+                    break;
+                case ONE_MONTH:
                     showError("One month reminder is not possible for this task's deadline.");
-                    return false;
-                }
-                break;
-            case CUSTOM:
-                if (date.isBefore(LocalDate.now())) {
+                    break;
+                case CUSTOM:
                     showError("Custom reminder date cannot be in the past.");
-                    return false;
-                }
-                break;
+                    break;
+            }
+            return false;
         }
         return true;
     }
@@ -815,20 +920,36 @@ public class MainApplication extends Application {
         alert.showAndWait();
     }
 
+    // Not modal, so a burst of reminders does not queue up blocking dialogs
+    private void showReminder(Reminder reminder) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Reminder");
+        alert.setHeaderText(reminder.getTask().getTitle());
+        alert.setContentText("Deadline: " + reminder.getTask().getDeadline());
+        alert.show();
+    }
+
+    private void showConflict(String entity) {
+        showError("This " + entity + " was changed or deleted elsewhere while you were working on it. "
+                + "Your change was not saved; the table now shows the current data.");
+    }
+
     private void checkDelayedTasks() {
-        int delayedCount = taskService.getDelayedTasksCount();
-        if (delayedCount > 0) {
-            Alert alert = new Alert(Alert.AlertType.WARNING);
-            alert.setTitle("Delayed Tasks");
-            alert.setHeaderText(null);
-            alert.setContentText("You have " + delayedCount + " overdue tasks!");
-            alert.showAndWait();
-        }
+        whenReady(asyncService.getDelayedTasksCount(), delayedCount -> {
+            if (delayedCount > 0) {
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Delayed Tasks");
+                alert.setHeaderText(null);
+                alert.setContentText("You have " + delayedCount + " overdue tasks!");
+                alert.showAndWait();
+            }
+        });
     }
 
     @Override
     public void stop() {
-        taskService.saveData();
+        // The window is already closed; wait for pending calls and the final save before exiting
+        asyncService.shutdown();
     }
 
     public static void main(String[] args) {
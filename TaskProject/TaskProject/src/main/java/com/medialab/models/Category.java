@@ -1,14 +1,33 @@
 package com.medialab.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class Category {
-    private String id;
+    private CompactId id;
     private String name;
+    // Bumped by TaskService on every stored change, for compare-and-set updates. Not persisted.
+    @JsonIgnore
+    private volatile long version;
 
     public Category() {
-        this.id = java.util.UUID.randomUUID().toString();
+        this(CompactId.random());
+    }
+
+    public Category(String id) {
+        this(CompactId.of(id));
+    }
+
+    public Category(CompactId id) {
+        this.id = id;
     }
 
-    public String getId() { return id; }
+    public String getId() { return id.toString(); }
+    @JsonIgnore
+    public CompactId getCompactId() { return id; }
+    @JsonIgnore
+    public long getVersion() { return version; }
+    @JsonIgnore
+    public void setVersion(long version) { this.version = version; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
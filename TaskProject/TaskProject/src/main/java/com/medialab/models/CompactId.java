@@ -0,0 +1,89 @@
+package com.medialab.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.UUID;
+
+// Entity id held as two longs when it is a canonical lower-case UUID, which is what every new
+// entity gets. Any other id (hand-written files use ids like "1") is kept as its original string.
+// JSON reads and writes the plain string form either way.
+public final class CompactId {
+    private final long high;
+    private final long low;
+    private final String raw;  // null for UUID ids
+
+    private CompactId(long high, long low, String raw) {
+        this.high = high;
+        this.low = low;
+        this.raw = raw;
+    }
+
+    public static CompactId random() {
+        UUID uuid = UUID.randomUUID();
+        return new CompactId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+    }
+
+    @JsonCreator
+    public static CompactId of(String id) {
+        if (id == null) {
+            return null;
+        }
+        if (!isCanonicalUuid(id)) {
+            return new CompactId(0, 0, id);
+        }
+        long high = 0;
+        long low = 0;
+        int digits = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            long nibble = Character.digit(c, 16);
+            if (digits++ < 16) {
+                high = (high << 4) | nibble;
+            } else {
+                low = (low << 4) | nibble;
+            }
+        }
+        return new CompactId(high, low, null);
+    }
+
+    // Only ids that print back identically are packed, so the string form always round-trips
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        return raw != null ? raw : new UUID(high, low).toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactId other = (CompactId) o;
+        return raw != null ? raw.equals(other.raw) : other.raw == null && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return raw != null ? raw.hashCode() : Long.hashCode(high * 31 + low);
+    }
+}
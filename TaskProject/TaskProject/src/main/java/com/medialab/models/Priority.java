@@ -1,19 +1,37 @@
 package com.medialab.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Priority {
-    private String id;
+    private CompactId id;
     private String name;
 
     @JsonProperty("isDefault")
     private boolean isDefault;
+    // Bumped by TaskService on every stored change, for compare-and-set updates. Not persisted.
+    @JsonIgnore
+    private volatile long version;
 
     public Priority() {
-        this.id = java.util.UUID.randomUUID().toString();
+        this(CompactId.random());
     }
 
-    public String getId() { return id; }
+    public Priority(String id) {
+        this(CompactId.of(id));
+    }
+
+    public Priority(CompactId id) {
+        this.id = id;
+    }
+
+    public String getId() { return id.toString(); }
+    @JsonIgnore
+    public CompactId getCompactId() { return id; }
+    @JsonIgnore
+    public long getVersion() { return version; }
+    @JsonIgnore
+    public void setVersion(long version) { this.version = version; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -1,28 +1,89 @@
 // Reminder.java
 package com.medialab.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDate;
 
 public class Reminder {
-    private String id;
+    private CompactId id;
     private ReminderType type;
     private LocalDate reminderDate;
+    private CompactId taskId;  // For JSON mapping
+
+    @JsonIgnore
     private Task task;
+    // Bumped by TaskService on every stored change, for compare-and-set updates. Not persisted.
+    @JsonIgnore
+    private volatile long version;
 
     public enum ReminderType {
-        ONE_DAY, ONE_WEEK, ONE_MONTH, CUSTOM
+        ONE_DAY, ONE_WEEK, ONE_MONTH, CUSTOM;
+
+        // The day a reminder of this type fires for a task due on deadline; CUSTOM reminders keep their own date
+        public LocalDate fireDate(LocalDate deadline, LocalDate customDate) {
+            if (this == CUSTOM) {
+                return customDate;
+            }
+            if (deadline == null) {
+                return null;
+            }
+            switch (this) {
+                case ONE_DAY:
+                    return deadline.minusDays(1);
+                case ONE_WEEK:
+                    return deadline.minusWeeks(1);
+                default:
+                    return deadline.minusMonths(1);
+            }
+        }
     }
 
     public Reminder() {
-        this.id = java.util.UUID.randomUUID().toString();
+        this(CompactId.random());
+    }
+
+    public Reminder(String id) {
+        this(CompactId.of(id));
+    }
+
+    public Reminder(CompactId id) {
+        this.id = id;
     }
 
     // Getters and setters
-    public String getId() { return id; }
+    public String getId() { return id.toString(); }
+    @JsonIgnore
+    public CompactId getCompactId() { return id; }
+    @JsonIgnore
+    public long getVersion() { return version; }
+    @JsonIgnore
+    public void setVersion(long version) { this.version = version; }
     public ReminderType getType() { return type; }
     public void setType(ReminderType type) { this.type = type; }
     public LocalDate getReminderDate() { return reminderDate; }
     public void setReminderDate(LocalDate reminderDate) { this.reminderDate = reminderDate; }
+
+    public String getTaskId() { return taskId == null ? null : taskId.toString(); }
+    public void setTaskId(String taskId) { this.taskId = CompactId.of(taskId); }
+    @JsonIgnore
+    public CompactId getTaskCompactId() { return taskId; }
+
+    @JsonIgnore
     public Task getTask() { return task; }
-    public void setTask(Task task) { this.task = task; }
+    @JsonIgnore
+    public void setTask(Task task) {
+        this.task = task;
+        if (task != null) {
+            this.taskId = task.getCompactId();
+        }
+    }
+
+    // Older files embedded a full copy of the task; only its id is kept
+    @JsonProperty("task")
+    private void setEmbeddedTask(Task task) {
+        if (task != null && taskId == null) {
+            taskId = task.getCompactId();
+        }
+    }
 }
\ No newline at end of file
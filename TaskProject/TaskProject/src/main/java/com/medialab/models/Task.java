@@ -7,11 +7,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Task {
-    private String id;
+    private CompactId id;
     private String title;
     private String description;
-    private String categoryId;  // For JSON mapping
-    private String priorityId;  // For JSON mapping
+    // For JSON mapping; once linked these share the category's and priority's own id instances
+    private CompactId categoryId;
+    private CompactId priorityId;
 
     @JsonIgnore
     private Category category;
@@ -20,16 +21,35 @@ public class Task {
 
     private LocalDate deadline;
     private TaskStatus status;
+    // Kept in step with the reminder list by TaskService; reminders are stored in their own file
+    @JsonIgnore
     private List<Reminder> reminders;
+    // Bumped by TaskService on every stored change, for compare-and-set updates. Not persisted.
+    @JsonIgnore
+    private volatile long version;
 
     public Task() {
-        this.id = java.util.UUID.randomUUID().toString();
+        this(CompactId.random());
+    }
+
+    public Task(String id) {
+        this(CompactId.of(id));
+    }
+
+    public Task(CompactId id) {
+        this.id = id;
         this.status = TaskStatus.OPEN;
         this.reminders = new ArrayList<>();
     }
 
     // Getters and setters
-    public String getId() { return id; }
+    public String getId() { return id.toString(); }
+    @JsonIgnore
+    public CompactId getCompactId() { return id; }
+    @JsonIgnore
+    public long getVersion() { return version; }
+    @JsonIgnore
+    public void setVersion(long version) { this.version = version; }
 
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -37,18 +57,22 @@ public class Task {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
-    public String getCategoryId() { return categoryId; }
-    public void setCategoryId(String categoryId) { this.categoryId = categoryId; }
+    public String getCategoryId() { return categoryId == null ? null : categoryId.toString(); }
+    public void setCategoryId(String categoryId) { this.categoryId = CompactId.of(categoryId); }
+    @JsonIgnore
+    public CompactId getCategoryCompactId() { return categoryId; }
 
-    public String getPriorityId() { return priorityId; }
-    public void setPriorityId(String priorityId) { this.priorityId = priorityId; }
+    public String getPriorityId() { return priorityId == null ? null : priorityId.toString(); }
+    public void setPriorityId(String priorityId) { this.priorityId = CompactId.of(priorityId); }
+    @JsonIgnore
+    public CompactId getPriorityCompactId() { return priorityId; }
 
     @JsonIgnore
     public Category getCategory() { return category; }
     public void setCategory(Category category) {
         this.category = category;
         if (category != null) {
-            this.categoryId = category.getId();
+            this.categoryId = category.getCompactId();
         }
     }
 
@@ -57,7 +81,7 @@ public class Task {
     public void setPriority(Priority priority) {
         this.priority = priority;
         if (priority != null) {
-            this.priorityId = priority.getId();
+            this.priorityId = priority.getCompactId();
         }
     }
 
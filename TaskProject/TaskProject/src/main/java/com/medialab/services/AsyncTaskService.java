@@ -0,0 +1,185 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Reminder;
+import com.medialab.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs TaskService calls on one background thread and returns CompletableFutures, so the JavaFX
+// Application Thread never waits on the store or the disk. A single thread keeps calls in the order
+// they were made; completions run on that thread, so UI code should continue with Platform.runLater.
+public class AsyncTaskService {
+    private final TaskService service;
+    private final ExecutorService executor;
+
+    public AsyncTaskService(TaskService service) {
+        this.service = service;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public TaskService getService() {
+        return service;
+    }
+
+    // Data Load/Save Operations
+    public CompletableFuture<Void> loadData() {
+        return run(service::loadData);
+    }
+
+    public CompletableFuture<Void> saveData() {
+        return run(service::saveData);
+    }
+
+    // Task Operations
+    public CompletableFuture<Void> addTask(Task task) {
+        return run(() -> service.addTask(task));
+    }
+
+    public CompletableFuture<Void> updateTask(Task task) {
+        return run(() -> service.updateTask(task));
+    }
+
+    public CompletableFuture<Void> deleteTask(Task task) {
+        return run(() -> service.deleteTask(task));
+    }
+
+    public CompletableFuture<Boolean> updateTask(Task task, long expectedVersion) {
+        return supply(() -> service.updateTask(task, expectedVersion));
+    }
+
+    public CompletableFuture<Boolean> deleteTask(Task task, long expectedVersion) {
+        return supply(() -> service.deleteTask(task, expectedVersion));
+    }
+
+    public CompletableFuture<List<Task>> getAllTasks() {
+        return supply(service::getAllTasks);
+    }
+
+    public CompletableFuture<List<Task>> getUncompletedTasks() {
+        return supply(service::getUncompletedTasks);
+    }
+
+    public CompletableFuture<Integer> getDelayedTasksCount() {
+        return supply(service::getDelayedTasksCount);
+    }
+
+    public CompletableFuture<TaskPage> query(TaskQuery query) {
+        return supply(() -> service.query(query));
+    }
+
+    // Category Operations
+    public CompletableFuture<Void> addCategory(Category category) {
+        return run(() -> service.addCategory(category));
+    }
+
+    public CompletableFuture<Void> updateCategory(Category category) {
+        return run(() -> service.updateCategory(category));
+    }
+
+    public CompletableFuture<Boolean> updateCategory(Category category, long expectedVersion) {
+        return supply(() -> service.updateCategory(category, expectedVersion));
+    }
+
+    public CompletableFuture<Void> deleteCategory(Category category) {
+        return run(() -> service.deleteCategory(category));
+    }
+
+    public CompletableFuture<List<Category>> getCategories() {
+        return supply(service::getCategories);
+    }
+
+    // Priority Operations
+    public CompletableFuture<Void> addPriority(Priority priority) {
+        return run(() -> service.addPriority(priority));
+    }
+
+    public CompletableFuture<Void> updatePriority(Priority priority) {
+        return run(() -> service.updatePriority(priority));
+    }
+
+    public CompletableFuture<Boolean> updatePriority(Priority priority, long expectedVersion) {
+        return supply(() -> service.updatePriority(priority, expectedVersion));
+    }
+
+    public CompletableFuture<Void> deletePriority(Priority priority) {
+        return run(() -> service.deletePriority(priority));
+    }
+
+    public CompletableFuture<List<Priority>> getPriorities() {
+        return supply(service::getPriorities);
+    }
+
+    // Reminder Operations
+    public CompletableFuture<Void> addReminder(Reminder reminder) {
+        return run(() -> service.addReminder(reminder));
+    }
+
+    public CompletableFuture<Void> deleteReminder(Reminder reminder) {
+        return run(() -> service.deleteReminder(reminder));
+    }
+
+    public CompletableFuture<List<Reminder>> getAllReminders() {
+        return supply(service::getAllReminders);
+    }
+
+    public CompletableFuture<List<Reminder>> getRemindersDueBetween(LocalDate from, LocalDate to) {
+        return supply(() -> service.getRemindersDueBetween(from, to));
+    }
+
+    // Background Services
+    // Starting the reminder scheduler files every reminder under the write lock, so these run here too
+    public CompletableFuture<Void> startAutosave(Duration debounce, int maxPendingChanges, Duration maxDelay) {
+        return run(() -> service.startAutosave(debounce, maxPendingChanges, maxDelay));
+    }
+
+    public CompletableFuture<Void> startReminderScheduler() {
+        return run(service::startReminderScheduler);
+    }
+
+    public CompletableFuture<Void> startDayRollover() {
+        return run(service::startDayRollover);
+    }
+
+    // Batch Operations
+    public CompletableFuture<Void> applyBatch(Consumer<TaskBatch> operations) {
+        return run(() -> service.applyBatch(operations));
+    }
+
+    public CompletableFuture<TaskSnapshot> snapshot() {
+        return supply(service::snapshot);
+    }
+
+    // Stops the day rollover, reminders and autosave and saves after every call already submitted, then stops the worker thread.
+    // The binary snapshot, if enabled, is refreshed only here. Blocks until the save has finished.
+    public void shutdown() {
+        run(() -> {
+            service.stopDayRollover();
+            service.stopReminderScheduler();
+            service.stopAutosave();
+            service.saveData();
+            service.saveBinarySnapshot();
+        }).join();
+        executor.shutdown();
+    }
+
+    private CompletableFuture<Void> run(Runnable call) {
+        return CompletableFuture.runAsync(call, executor);
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+}
@@ -0,0 +1,136 @@
+package com.medialab.services;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Groups entities by one attribute. The key each entity was filed under is remembered,
+// so an entity edited in place can still be found and moved when it is re-indexed.
+class AttributeIndex<E, K> {
+    private final String name;
+    private final Function<E, ?> idOf;
+    private final Function<E, K> keyOf;
+    private final Map<K, Map<Object, E>> entries;
+    private final Map<Object, K> indexedKeys = new HashMap<>();
+
+    AttributeIndex(String name, Function<E, ?> idOf, Function<E, K> keyOf, Supplier<Map<K, Map<Object, E>>> mapFactory) {
+        this.name = name;
+        this.idOf = idOf;
+        this.keyOf = keyOf;
+        this.entries = mapFactory.get();
+    }
+
+    void add(E entity) {
+        Object id = idOf.apply(entity);
+        K key = keyOf.apply(entity);
+        indexedKeys.put(id, key);
+        if (key != null) {
+            entries.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(id, entity);
+        }
+    }
+
+    void remove(E entity) {
+        Object id = idOf.apply(entity);
+        if (!indexedKeys.containsKey(id)) {
+            return;
+        }
+        K key = indexedKeys.remove(id);
+        if (key != null) {
+            Map<Object, E> bucket = entries.get(key);
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    void update(E entity) {
+        remove(entity);
+        add(entity);
+    }
+
+    void clear() {
+        entries.clear();
+        indexedKeys.clear();
+    }
+
+    Collection<E> get(K key) {
+        Map<Object, E> bucket = key == null ? null : entries.get(key);
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableCollection(bucket.values());
+    }
+
+    int count(K key) {
+        Map<Object, E> bucket = key == null ? null : entries.get(key);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    Map<K, Map<Object, E>> buckets() {
+        return entries;
+    }
+
+    List<E> range(K from, K to) {
+        return streamRange(from, to).collect(Collectors.toList());
+    }
+
+    // Entities with keys in [from, to] in key order, read lazily; either bound may be null for an open end.
+    // Only available when the index was built over a NavigableMap.
+    Stream<E> streamRange(K from, K to) {
+        return rangeBuckets(from, to).values().stream().flatMap(bucket -> bucket.values().stream());
+    }
+
+    // Number of entities with keys in [from, to], summed per bucket without visiting the entities
+    int countRange(K from, K to) {
+        int count = 0;
+        for (Map<Object, E> bucket : rangeBuckets(from, to).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    private NavigableMap<K, Map<Object, E>> rangeBuckets(K from, K to) {
+        if (!(entries instanceof NavigableMap)) {
+            throw new UnsupportedOperationException(name + " index is not ordered");
+        }
+        NavigableMap<K, Map<Object, E>> sorted = (NavigableMap<K, Map<Object, E>>) entries;
+        if (from != null && to != null) {
+            sorted = sorted.subMap(from, true, to, true);
+        } else if (from != null) {
+            sorted = sorted.tailMap(from, true);
+        } else if (to != null) {
+            sorted = sorted.headMap(to, true);
+        }
+        return sorted;
+    }
+
+    // Throws if the index disagrees with the given entities or with their current attribute values
+    void verify(Collection<E> all) {
+        if (indexedKeys.size() != all.size()) {
+            throw new IllegalStateException(name + " index holds " + indexedKeys.size()
+                    + " entities, store holds " + all.size());
+        }
+        int bucketed = 0;
+        for (Map<Object, E> bucket : entries.values()) {
+            bucketed += bucket.size();
+        }
+        int keyed = 0;
+        for (E entity : all) {
+            Object id = idOf.apply(entity);
+            K key = keyOf.apply(entity);
+            if (!indexedKeys.containsKey(id) || !Objects.equals(indexedKeys.get(id), key)) {
+                throw new IllegalStateException(name + " index has a stale key for " + id);
+            }
+            if (key != null) {
+                keyed++;
+                Map<Object, E> bucket = entries.get(key);
+                if (bucket == null || bucket.get(id) != entity) {
+                    throw new IllegalStateException(name + " index is missing " + id + " under " + key);
+                }
+            }
+        }
+        if (bucketed != keyed) {
+            throw new IllegalStateException(name + " index has " + bucketed + " entries, expected " + keyed);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.medialab.services;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Coalesces bursts of changes into one background flush.
+// A flush runs once no change has arrived for the debounce interval, or sooner when
+// maxPendingChanges accumulate or the oldest pending change has waited maxDelay.
+class AutosaveScheduler {
+    private final Runnable flush;
+    private final long debounceNanos;
+    private final int maxPendingChanges;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> scheduledFlush;
+    private int pendingChanges;
+    private long firstPendingNanos;
+    private volatile Duration lastFlushLatency = Duration.ZERO;
+    private volatile long flushCount;
+
+    AutosaveScheduler(Runnable flush, Duration debounce, int maxPendingChanges, Duration maxDelay) {
+        this.flush = flush;
+        this.debounceNanos = debounce.toNanos();
+        this.maxPendingChanges = maxPendingChanges;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    synchronized void changed() {
+        long now = System.nanoTime();
+        if (pendingChanges++ == 0) {
+            firstPendingNanos = now;
+        }
+        long waited = now - firstPendingNanos;
+        if (pendingChanges >= maxPendingChanges || waited >= maxDelayNanos) {
+            schedule(0);
+        } else {
+            schedule(Math.min(debounceNanos, maxDelayNanos - waited));
+        }
+    }
+
+    synchronized void flushSoon() {
+        schedule(0);
+    }
+
+    synchronized int getPendingChanges() {
+        return pendingChanges;
+    }
+
+    Duration getLastFlushLatency() {
+        return lastFlushLatency;
+    }
+
+    long getFlushCount() {
+        return flushCount;
+    }
+
+    // Flushes whatever is still pending and stops the worker thread
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushNow();
+    }
+
+    private void schedule(long delayNanos) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = executor.schedule(this::flushNow, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void flushNow() {
+        synchronized (this) {
+            scheduledFlush = null;
+            pendingChanges = 0;
+        }
+        long start = System.nanoTime();
+        try {
+            flush.run();
+        } finally {
+            lastFlushLatency = Duration.ofNanos(System.nanoTime() - start);
+            flushCount++;
+        }
+    }
+}
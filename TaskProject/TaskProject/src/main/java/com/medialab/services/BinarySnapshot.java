@@ -0,0 +1,231 @@
+package com.medialab.services;
+
+import com.medialab.models.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// Versioned binary image of the whole store, read in one pass into a heap buffer. Not memory-mapped:
+// a mapping stays open until collected, and on Windows that blocks the next write from replacing the file.
+//
+// Layout (big-endian):
+//   int magic, int version
+//   int stringCount, then per string: int byteLength, UTF-8 bytes
+//   int categoryCount, then per category: int id, int name                                    (string refs)
+//   int priorityCount, then per priority: int id, int name, byte isDefault
+//   int taskCount, then per task: int id, int title, int description, int category, int priority,
+//                                 int deadline (epoch day), byte status
+//   int reminderCount, then per reminder: int id, int task, byte type, int reminderDate (epoch day)
+//
+// Task category/priority and reminder task fields are record indexes into the preceding sections.
+// NO_REF marks a missing string or record, NO_DATE a missing date and NO_ENUM a missing enum value.
+final class BinarySnapshot {
+    static final String FILE_NAME = "snapshot.bin";
+
+    private static final int MAGIC = 0x4D4C5453; // "MLTS"
+    private static final int VERSION = 1;
+    private static final int NO_REF = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_ENUM = -1;
+
+    static final class Contents {
+        final List<Category> categories;
+        final List<Priority> priorities;
+        final List<Task> tasks;
+        final List<Reminder> reminders;
+
+        Contents(List<Category> categories, List<Priority> priorities, List<Task> tasks, List<Reminder> reminders) {
+            this.categories = categories;
+            this.priorities = priorities;
+            this.tasks = tasks;
+            this.reminders = reminders;
+        }
+    }
+
+    private BinarySnapshot() {
+    }
+
+    static void write(Path path, Contents contents) throws IOException {
+        Map<String, Integer> stringRefs = new LinkedHashMap<>();
+        Map<Category, Integer> categoryRefs = new HashMap<>();
+        Map<Priority, Integer> priorityRefs = new HashMap<>();
+        Map<Task, Integer> taskRefs = new HashMap<>();
+
+        for (Category category : contents.categories) {
+            categoryRefs.put(category, categoryRefs.size());
+            intern(stringRefs, category.getId());
+            intern(stringRefs, category.getName());
+        }
+        for (Priority priority : contents.priorities) {
+            priorityRefs.put(priority, priorityRefs.size());
+            intern(stringRefs, priority.getId());
+            intern(stringRefs, priority.getName());
+        }
+        for (Task task : contents.tasks) {
+            taskRefs.put(task, taskRefs.size());
+            intern(stringRefs, task.getId());
+            intern(stringRefs, task.getTitle());
+            intern(stringRefs, task.getDescription());
+        }
+        for (Reminder reminder : contents.reminders) {
+            intern(stringRefs, reminder.getId());
+        }
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(stringRefs.size());
+            for (String value : stringRefs.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(contents.categories.size());
+            for (Category category : contents.categories) {
+                out.writeInt(ref(stringRefs, category.getId()));
+                out.writeInt(ref(stringRefs, category.getName()));
+            }
+
+            out.writeInt(contents.priorities.size());
+            for (Priority priority : contents.priorities) {
+                out.writeInt(ref(stringRefs, priority.getId()));
+                out.writeInt(ref(stringRefs, priority.getName()));
+                out.writeByte(priority.isDefault() ? 1 : 0);
+            }
+
+            out.writeInt(contents.tasks.size());
+            for (Task task : contents.tasks) {
+                out.writeInt(ref(stringRefs, task.getId()));
+                out.writeInt(ref(stringRefs, task.getTitle()));
+                out.writeInt(ref(stringRefs, task.getDescription()));
+                out.writeInt(task.getCategory() == null ? NO_REF : categoryRefs.getOrDefault(task.getCategory(), NO_REF));
+                out.writeInt(task.getPriority() == null ? NO_REF : priorityRefs.getOrDefault(task.getPriority(), NO_REF));
+                out.writeInt(toEpochDay(task.getDeadline()));
+                out.writeByte(task.getStatus() == null ? NO_ENUM : task.getStatus().ordinal());
+            }
+
+            out.writeInt(contents.reminders.size());
+            for (Reminder reminder : contents.reminders) {
+                out.writeInt(ref(stringRefs, reminder.getId()));
+                out.writeInt(reminder.getTask() == null ? NO_REF : taskRefs.getOrDefault(reminder.getTask(), NO_REF));
+                out.writeByte(reminder.getType() == null ? NO_ENUM : reminder.getType().ordinal());
+                out.writeInt(toEpochDay(reminder.getReminderDate()));
+            }
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated snapshot: " + path);
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a task snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buffer);
+            }
+
+            Category[] categories = new Category[buffer.getInt()];
+            for (int i = 0; i < categories.length; i++) {
+                Category category = new Category(string(strings, buffer.getInt()));
+                category.setName(string(strings, buffer.getInt()));
+                categories[i] = category;
+            }
+
+            Priority[] priorities = new Priority[buffer.getInt()];
+            for (int i = 0; i < priorities.length; i++) {
+                Priority priority = new Priority(string(strings, buffer.getInt()));
+                priority.setName(string(strings, buffer.getInt()));
+                priority.setDefault(buffer.get() != 0);
+                priorities[i] = priority;
+            }
+
+            TaskStatus[] statuses = TaskStatus.values();
+            Task[] tasks = new Task[buffer.getInt()];
+            for (int i = 0; i < tasks.length; i++) {
+                Task task = new Task(string(strings, buffer.getInt()));
+                task.setTitle(string(strings, buffer.getInt()));
+                task.setDescription(string(strings, buffer.getInt()));
+                int category = buffer.getInt();
+                int priority = buffer.getInt();
+                task.setCategory(category == NO_REF ? null : categories[category]);
+                task.setPriority(priority == NO_REF ? null : priorities[priority]);
+                task.setDeadline(fromEpochDay(buffer.getInt()));
+                byte status = buffer.get();
+                task.setStatus(status == NO_ENUM ? null : statuses[status]);
+                tasks[i] = task;
+            }
+
+            Reminder.ReminderType[] types = Reminder.ReminderType.values();
+            Reminder[] reminders = new Reminder[buffer.getInt()];
+            for (int i = 0; i < reminders.length; i++) {
+                Reminder reminder = new Reminder(string(strings, buffer.getInt()));
+                int task = buffer.getInt();
+                reminder.setTask(task == NO_REF ? null : tasks[task]);
+                byte type = buffer.get();
+                reminder.setType(type == NO_ENUM ? null : types[type]);
+                reminder.setReminderDate(fromEpochDay(buffer.getInt()));
+                reminders[i] = reminder;
+            }
+
+            return new Contents(
+                    new ArrayList<>(Arrays.asList(categories)),
+                    new ArrayList<>(Arrays.asList(priorities)),
+                    new ArrayList<>(Arrays.asList(tasks)),
+                    new ArrayList<>(Arrays.asList(reminders)));
+        }
+    }
+
+    private static void intern(Map<String, Integer> stringRefs, String value) {
+        if (value != null) {
+            stringRefs.putIfAbsent(value, stringRefs.size());
+        }
+    }
+
+    private static int ref(Map<String, Integer> stringRefs, String value) {
+        return value == null ? NO_REF : stringRefs.get(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref == NO_REF ? null : strings[ref];
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,197 @@
+package com.medialab.services;
+
+import com.medialab.models.CompactId;
+import com.medialab.models.Task;
+import com.medialab.models.TaskStatus;
+
+import java.util.*;
+
+// Struct-of-arrays copy of the task attributes that reports scan: status, deadline, category and
+// priority, one slot per task. Aggregates run over the primitive columns instead of following
+// Task, LocalDate and enum references. A removed task's slot is filled with the last slot so the
+// columns stay dense.
+class ColumnarTaskStore {
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NO_ORDINAL = -1;
+    private static final byte NO_STATUS = -1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final Map<CompactId, Integer> slotOf = new HashMap<>();
+    private CompactId[] ids = new CompactId[16];
+    private byte[] status = new byte[16];
+    private int[] deadline = new int[16];
+    private int[] category = new int[16];
+    private int[] priority = new int[16];
+    private int size;
+
+    // Category and priority ids are replaced by small ordinals, assigned on first sight
+    private final Map<CompactId, Integer> categoryOrdinals = new HashMap<>();
+    private final List<CompactId> categoryIds = new ArrayList<>();
+    private final Map<CompactId, Integer> priorityOrdinals = new HashMap<>();
+    private final List<CompactId> priorityIds = new ArrayList<>();
+
+    void add(Task task) {
+        Integer slot = slotOf.get(task.getCompactId());
+        if (slot == null) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            slotOf.put(task.getCompactId(), slot);
+            ids[slot] = task.getCompactId();
+        }
+        write(slot, task);
+    }
+
+    void update(Task task) {
+        add(task);
+    }
+
+    void remove(Task task) {
+        Integer slot = slotOf.remove(task.getCompactId());
+        if (slot == null) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            status[slot] = status[last];
+            deadline[slot] = deadline[last];
+            category[slot] = category[last];
+            priority[slot] = priority[last];
+            slotOf.put(ids[slot], slot);
+        }
+        ids[last] = null;
+    }
+
+    void clear() {
+        slotOf.clear();
+        Arrays.fill(ids, 0, size, null);
+        size = 0;
+        // Every slot is gone, so no ordinal is referenced any more; ids seen before a reload are dropped
+        categoryOrdinals.clear();
+        categoryIds.clear();
+        priorityOrdinals.clear();
+        priorityIds.clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] countByStatus() {
+        int[] counts = new int[STATUSES.length];
+        byte[] status = this.status;
+        for (int i = 0; i < size; i++) {
+            if (status[i] != NO_STATUS) {
+                counts[status[i]]++;
+            }
+        }
+        return counts;
+    }
+
+    // Task counts per category id; tasks without a category are not counted
+    Map<CompactId, Integer> countByCategory() {
+        return countByOrdinal(category, categoryIds);
+    }
+
+    Map<CompactId, Integer> countByPriority() {
+        return countByOrdinal(priority, priorityIds);
+    }
+
+    // Tasks with a deadline in [fromDay, toDay], optionally skipping completed ones
+    int countDueBetween(int fromDay, int toDay, boolean uncompletedOnly) {
+        byte completed = (byte) TaskStatus.COMPLETED.ordinal();
+        int[] deadline = this.deadline;
+        byte[] status = this.status;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int day = deadline[i];
+            if (day != NO_DATE && day >= fromDay && day <= toDay && !(uncompletedOnly && status[i] == completed)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void verify(Collection<Task> all) {
+        if (size != all.size() || slotOf.size() != size) {
+            throw new IllegalStateException("columnar store holds " + size + " tasks, store holds " + all.size());
+        }
+        for (Task task : all) {
+            Integer slot = slotOf.get(task.getCompactId());
+            if (slot == null || !task.getCompactId().equals(ids[slot])) {
+                throw new IllegalStateException("columnar store is missing " + task.getCompactId());
+            }
+            if (status[slot] != statusOf(task) || deadline[slot] != deadlineOf(task)
+                    || category[slot] != existingOrdinal(categoryOrdinals, categoryIdOf(task))
+                    || priority[slot] != existingOrdinal(priorityOrdinals, priorityIdOf(task))) {
+                throw new IllegalStateException("columnar store has stale values for " + task.getCompactId());
+            }
+        }
+    }
+
+    private void write(int slot, Task task) {
+        status[slot] = statusOf(task);
+        deadline[slot] = deadlineOf(task);
+        category[slot] = ordinalOf(categoryOrdinals, categoryIds, categoryIdOf(task));
+        priority[slot] = ordinalOf(priorityOrdinals, priorityIds, priorityIdOf(task));
+    }
+
+    private Map<CompactId, Integer> countByOrdinal(int[] column, List<CompactId> idsByOrdinal) {
+        int[] counts = new int[idsByOrdinal.size()];
+        for (int i = 0; i < size; i++) {
+            if (column[i] != NO_ORDINAL) {
+                counts[column[i]]++;
+            }
+        }
+        Map<CompactId, Integer> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                result.put(idsByOrdinal.get(ordinal), counts[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        status = Arrays.copyOf(status, capacity);
+        deadline = Arrays.copyOf(deadline, capacity);
+        category = Arrays.copyOf(category, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+    }
+
+    private static byte statusOf(Task task) {
+        return task.getStatus() == null ? NO_STATUS : (byte) task.getStatus().ordinal();
+    }
+
+    private static int deadlineOf(Task task) {
+        return task.getDeadline() == null ? NO_DATE : (int) task.getDeadline().toEpochDay();
+    }
+
+    private static CompactId categoryIdOf(Task task) {
+        return task.getCategory() == null ? null : task.getCategory().getCompactId();
+    }
+
+    private static CompactId priorityIdOf(Task task) {
+        return task.getPriority() == null ? null : task.getPriority().getCompactId();
+    }
+
+    // Lookup only, so verify can run under a shared read lock
+    private static int existingOrdinal(Map<CompactId, Integer> ordinals, CompactId id) {
+        Integer ordinal = id == null ? null : ordinals.get(id);
+        return ordinal == null ? NO_ORDINAL : ordinal;
+    }
+
+    private static int ordinalOf(Map<CompactId, Integer> ordinals, List<CompactId> idsByOrdinal, CompactId id) {
+        if (id == null) {
+            return NO_ORDINAL;
+        }
+        return ordinals.computeIfAbsent(id, key -> {
+            idsByOrdinal.add(key);
+            return idsByOrdinal.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.medialab.services;
+
+import com.medialab.models.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Told when TaskService has moved to a new day, with the tasks that became delayed as a result.
+// Called on the thread that ran the rollover.
+public interface DayRolloverListener {
+    void dayStarted(LocalDate today, List<Task> newlyDelayed);
+}
@@ -0,0 +1,50 @@
+package com.medialab.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Runs a task at the start of every day in the clock's time zone. Each run schedules the next one
+// from the clock, so 23- and 25-hour days and a machine that slept through midnight need no special case.
+class DayRolloverTimer {
+    private final Clock clock;
+    private final Runnable onNewDay;
+    private final ScheduledExecutorService executor;
+
+    DayRolloverTimer(Clock clock, Runnable onNewDay) {
+        this.clock = clock;
+        this.onNewDay = onNewDay;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-day-rollover");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleNext() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        LocalDate tomorrow = LocalDate.now(clock).plusDays(1);
+        long delay = Math.max(0, Duration.between(clock.instant(), tomorrow.atStartOfDay(clock.getZone())).toMillis());
+        executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        try {
+            onNewDay.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            scheduleNext();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.medialab.services;
+
+import com.medialab.models.CompactId;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+// Insertion-ordered copy of one store collection, held as a persistent AVL tree keyed by insertion
+// sequence. A change copies only the O(log n) nodes on its path and shares the rest, so view() is O(1)
+// and a view taken earlier never sees later changes. Replacing an id keeps its position, like put on
+// a LinkedHashMap. Writers must be serialized by the caller; views may be read from any thread.
+class PersistentList<T> {
+    private static final class Node<T> {
+        final long key;
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;
+
+        Node(long key, T value, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private volatile Node<T> root;
+    private final Map<CompactId, Long> sequenceById = new HashMap<>();
+    private long nextSequence;
+
+    void put(CompactId id, T value) {
+        Long sequence = sequenceById.get(id);
+        if (sequence == null) {
+            sequence = nextSequence++;
+            sequenceById.put(id, sequence);
+        }
+        root = insert(root, sequence, value);
+    }
+
+    void remove(CompactId id) {
+        Long sequence = sequenceById.remove(id);
+        if (sequence != null) {
+            root = delete(root, sequence);
+        }
+    }
+
+    // Replaces the contents with values in iteration order, building a balanced tree in O(n)
+    void reset(Collection<T> values, Function<T, CompactId> idOf) {
+        sequenceById.clear();
+        nextSequence = 0;
+        @SuppressWarnings("unchecked")
+        T[] ordered = (T[]) values.toArray();
+        for (T value : ordered) {
+            sequenceById.put(idOf.apply(value), nextSequence++);
+        }
+        root = build(ordered, 0, ordered.length);
+    }
+
+    List<T> view() {
+        return new View<>(root);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <T> Node<T> build(T[] values, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(middle, values[middle], build(values, from, middle), build(values, middle + 1, to));
+    }
+
+    private static <T> Node<T> insert(Node<T> node, long key, T value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, insert(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <T> Node<T> delete(Node<T> node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, deleteFirst(node.right));
+    }
+
+    private static <T> Node<T> deleteFirst(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, deleteFirst(node.left), node.right);
+    }
+
+    // Builds a node over two subtrees whose heights differ by at most two, rotating once or twice
+    private static <T> Node<T> balance(long key, T value, Node<T> left, Node<T> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<T> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value, new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<T> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value, new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    // get is O(log n); iteration walks the tree in order, O(1) amortized per element
+    private static final class View<T> extends AbstractList<T> {
+        private final Node<T> root;
+
+        View(Node<T> root) {
+            this.root = root;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            Node<T> node = root;
+            while (true) {
+                int leftSize = PersistentList.size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                } else if (index > leftSize) {
+                    index -= leftSize + 1;
+                    node = node.right;
+                } else {
+                    return node.value;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return PersistentList.size(root);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Deque<Node<T>> path = new ArrayDeque<>();
+            pushLeft(path, root);
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return !path.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    if (path.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node<T> node = path.pop();
+                    pushLeft(path, node.right);
+                    return node.value;
+                }
+            };
+        }
+
+        private static <T> void pushLeft(Deque<Node<T>> path, Node<T> node) {
+            for (; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+    }
+}
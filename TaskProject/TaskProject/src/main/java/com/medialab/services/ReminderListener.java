@@ -0,0 +1,8 @@
+package com.medialab.services;
+
+import com.medialab.models.Reminder;
+
+// Told when a reminder comes due. Called on the reminder scheduler thread.
+public interface ReminderListener {
+    void reminderDue(Reminder reminder);
+}
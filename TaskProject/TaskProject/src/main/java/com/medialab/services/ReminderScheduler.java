@@ -0,0 +1,152 @@
+package com.medialab.services;
+
+import com.medialab.models.CompactId;
+import com.medialab.models.Reminder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Fires reminders on their reminder date. Pending reminders are kept by due day, so adding or
+// cancelling one is O(log days) and there is only ever one wake-up scheduled, for the start of the
+// earliest due day. Reminders dated before the day the scheduler started count as missed.
+class ReminderScheduler {
+    private final Clock clock;
+    private final ReminderListener sink;
+    private final ScheduledExecutorService executor;
+    private final NavigableMap<LocalDate, Map<CompactId, Reminder>> pending = new TreeMap<>();
+    private final Map<CompactId, LocalDate> dueDates = new HashMap<>();
+    // Every reminder due on or before this day has been fired
+    private LocalDate firedThrough;
+    private ScheduledFuture<?> wakeUp;
+    private LocalDate wakeUpDay;
+    private volatile long firedCount;
+
+    ReminderScheduler(Clock clock, ReminderListener sink) {
+        this.clock = clock;
+        this.sink = sink;
+        this.firedThrough = LocalDate.now(clock).minusDays(1);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // A new or edited reminder; one due today fires straight away, one dated in the past never does
+    synchronized void schedule(Reminder reminder) {
+        LocalDate due = reminder.getReminderDate();
+        if (due == null || due.isBefore(LocalDate.now(clock))) {
+            cancel(reminder);
+        } else {
+            enqueue(reminder, due);
+        }
+    }
+
+    // Puts a reminder back after its task was reopened or edited, unless its day has already fired
+    synchronized void resume(Reminder reminder) {
+        LocalDate due = reminder.getReminderDate();
+        if (due != null && !due.isBefore(LocalDate.now(clock)) && due.isAfter(firedThrough)) {
+            enqueue(reminder, due);
+        }
+    }
+
+    synchronized void cancel(Reminder reminder) {
+        LocalDate due = dueDates.remove(reminder.getCompactId());
+        if (due != null) {
+            Map<CompactId, Reminder> bucket = pending.get(due);
+            bucket.remove(reminder.getCompactId());
+            if (bucket.isEmpty()) {
+                pending.remove(due);
+            }
+            scheduleWakeUp();
+        }
+    }
+
+    // Replaces everything pending, e.g. after the store was reloaded
+    synchronized void replaceAll(Collection<Reminder> reminders) {
+        pending.clear();
+        dueDates.clear();
+        for (Reminder reminder : reminders) {
+            resume(reminder);
+        }
+        scheduleWakeUp();
+    }
+
+    synchronized int getPendingCount() {
+        return dueDates.size();
+    }
+
+    long getFiredCount() {
+        return firedCount;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(Reminder reminder, LocalDate due) {
+        LocalDate previous = dueDates.put(reminder.getCompactId(), due);
+        if (previous != null && !previous.equals(due)) {
+            Map<CompactId, Reminder> bucket = pending.get(previous);
+            bucket.remove(reminder.getCompactId());
+            if (bucket.isEmpty()) {
+                pending.remove(previous);
+            }
+        }
+        pending.computeIfAbsent(due, d -> new LinkedHashMap<>()).put(reminder.getCompactId(), reminder);
+        scheduleWakeUp();
+    }
+
+    // Keeps the single wake-up pointed at the earliest pending day
+    private void scheduleWakeUp() {
+        LocalDate next = pending.isEmpty() ? null : pending.firstKey();
+        if (Objects.equals(next, wakeUpDay) && wakeUp != null) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        wakeUpDay = next;
+        if (next == null || executor.isShutdown()) {
+            return;
+        }
+        long delay = Math.max(0, Duration.between(clock.instant(), next.atStartOfDay(clock.getZone())).toMillis());
+        wakeUp = executor.schedule(this::fireDue, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void fireDue() {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            wakeUp = null;
+            wakeUpDay = null;
+            LocalDate today = LocalDate.now(clock);
+            NavigableMap<LocalDate, Map<CompactId, Reminder>> reached = pending.headMap(today, true);
+            for (Map<CompactId, Reminder> bucket : reached.values()) {
+                due.addAll(bucket.values());
+            }
+            reached.clear();
+            for (Reminder reminder : due) {
+                dueDates.remove(reminder.getCompactId());
+            }
+            if (today.isAfter(firedThrough)) {
+                firedThrough = today;
+            }
+            scheduleWakeUp();
+        }
+        for (Reminder reminder : due) {
+            try {
+                sink.reminderDue(reminder);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        firedCount += due.size();
+    }
+}
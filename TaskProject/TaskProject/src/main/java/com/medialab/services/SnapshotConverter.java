@@ -0,0 +1,27 @@
+package com.medialab.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Converts the JSON data files to a binary snapshot and back.
+// Usage: SnapshotConverter --to-binary|--to-json <snapshot file>
+public class SnapshotConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !(args[0].equals("--to-binary") || args[0].equals("--to-json"))) {
+            System.err.println("Usage: SnapshotConverter --to-binary|--to-json <snapshot file>");
+            System.exit(1);
+        }
+
+        TaskService taskService = TaskService.getInstance();
+        Path snapshotPath = Paths.get(args[1]);
+        if (args[0].equals("--to-binary")) {
+            taskService.loadData();
+            taskService.exportBinarySnapshot(snapshotPath);
+        } else {
+            taskService.importBinarySnapshot(snapshotPath);
+            taskService.saveData();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Reminder;
+import com.medialab.models.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Mutations collected for TaskService.applyBatch, which applies them in order as one unit
+public final class TaskBatch {
+    static final class Operation {
+        final TaskJournal.Op op;
+        final Object entity;
+
+        Operation(TaskJournal.Op op, Object entity) {
+            this.op = op;
+            this.entity = entity;
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    TaskBatch() {
+    }
+
+    public TaskBatch addTask(Task task) { return add(TaskJournal.Op.ADD_TASK, task); }
+    public TaskBatch updateTask(Task task) { return add(TaskJournal.Op.UPDATE_TASK, task); }
+    public TaskBatch deleteTask(Task task) { return add(TaskJournal.Op.DELETE_TASK, task); }
+
+    public TaskBatch addCategory(Category category) { return add(TaskJournal.Op.ADD_CATEGORY, category); }
+    public TaskBatch updateCategory(Category category) { return add(TaskJournal.Op.UPDATE_CATEGORY, category); }
+    public TaskBatch deleteCategory(Category category) { return add(TaskJournal.Op.DELETE_CATEGORY, category); }
+
+    public TaskBatch addPriority(Priority priority) { return add(TaskJournal.Op.ADD_PRIORITY, priority); }
+    public TaskBatch updatePriority(Priority priority) { return add(TaskJournal.Op.UPDATE_PRIORITY, priority); }
+    public TaskBatch deletePriority(Priority priority) { return add(TaskJournal.Op.DELETE_PRIORITY, priority); }
+
+    public TaskBatch addReminder(Reminder reminder) { return add(TaskJournal.Op.ADD_REMINDER, reminder); }
+    public TaskBatch deleteReminder(Reminder reminder) { return add(TaskJournal.Op.DELETE_REMINDER, reminder); }
+
+    public int size() {
+        return operations.size();
+    }
+
+    List<Operation> operations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    private TaskBatch add(TaskJournal.Op op, Object entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException(op + " needs an entity");
+        }
+        operations.add(new Operation(op, entity));
+        return this;
+    }
+}
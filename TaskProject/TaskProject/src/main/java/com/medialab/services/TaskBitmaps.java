@@ -0,0 +1,212 @@
+package com.medialab.services;
+
+import com.medialab.models.CompactId;
+import com.medialab.models.Task;
+import com.medialab.models.TaskStatus;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+// One bitmap per status, category and priority over task slots. Filters on several attributes
+// combine a machine word at a time with and/or/andNot, and counts come from cardinality without
+// building task lists. A removed task's slot is handed to the next task added.
+class TaskBitmaps {
+    private static final byte NO_STATUS = -1;
+
+    private final Map<CompactId, Integer> slotOf = new HashMap<>();
+    private final BitSet used = new BitSet();
+    // Slots freed by remove, reused newest first; with none free every slot below used.length() is taken
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private Task[] tasks = new Task[16];
+    // What each slot was filed under, so a task edited in place can be moved
+    private byte[] statusOf = new byte[16];
+    private CompactId[] categoryOf = new CompactId[16];
+    private CompactId[] priorityOf = new CompactId[16];
+
+    private final BitSet[] byStatus = new BitSet[TaskStatus.values().length];
+    private final Map<CompactId, BitSet> byCategory = new HashMap<>();
+    private final Map<CompactId, BitSet> byPriority = new HashMap<>();
+
+    TaskBitmaps() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new BitSet();
+        }
+    }
+
+    void add(Task task) {
+        Integer slot = slotOf.get(task.getCompactId());
+        if (slot != null) {
+            clearBits(slot);
+        } else {
+            slot = freeCount > 0 ? freeSlots[--freeCount] : used.length();
+            if (slot == tasks.length) {
+                grow();
+            }
+            slotOf.put(task.getCompactId(), slot);
+            used.set(slot);
+        }
+        tasks[slot] = task;
+        setBits(slot, task);
+    }
+
+    void update(Task task) {
+        add(task);
+    }
+
+    void remove(Task task) {
+        Integer slot = slotOf.remove(task.getCompactId());
+        if (slot != null) {
+            clearBits(slot);
+            used.clear(slot);
+            tasks[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    void clear() {
+        slotOf.clear();
+        used.clear();
+        freeCount = 0;
+        Arrays.fill(tasks, null);
+        Arrays.fill(categoryOf, null);
+        Arrays.fill(priorityOf, null);
+        for (BitSet bits : byStatus) {
+            bits.clear();
+        }
+        byCategory.clear();
+        byPriority.clear();
+    }
+
+    // The returned bitmaps are copies the caller may combine in place
+    BitSet all() {
+        return (BitSet) used.clone();
+    }
+
+    BitSet status(TaskStatus status) {
+        return (BitSet) byStatus[status.ordinal()].clone();
+    }
+
+    BitSet category(CompactId categoryId) {
+        BitSet bits = byCategory.get(categoryId);
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    BitSet priority(CompactId priorityId) {
+        BitSet bits = byPriority.get(priorityId);
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    // Tasks matching every given value; a null argument does not filter
+    BitSet matching(TaskStatus status, CompactId categoryId, CompactId priorityId) {
+        BitSet bits = null;
+        if (status != null) {
+            bits = status(status);
+        }
+        bits = and(bits, categoryId == null ? null : byCategory.getOrDefault(categoryId, new BitSet()));
+        bits = and(bits, priorityId == null ? null : byPriority.getOrDefault(priorityId, new BitSet()));
+        return bits == null ? all() : bits;
+    }
+
+    Stream<Task> stream(BitSet bits) {
+        return bits.stream().mapToObj(slot -> tasks[slot]);
+    }
+
+    void verify(Collection<Task> all) {
+        if (slotOf.size() != all.size() || used.cardinality() != all.size()) {
+            throw new IllegalStateException("task bitmaps hold " + slotOf.size() + " tasks, store holds " + all.size());
+        }
+        int statused = 0;
+        for (Task task : all) {
+            Integer slot = slotOf.get(task.getCompactId());
+            if (slot == null || tasks[slot] != task) {
+                throw new IllegalStateException("task bitmaps are missing " + task.getCompactId());
+            }
+            if (task.getStatus() != null) {
+                statused++;
+                if (!byStatus[task.getStatus().ordinal()].get(slot)) {
+                    throw new IllegalStateException("task bitmaps have a stale status for " + task.getCompactId());
+                }
+            }
+            if (!hasBit(byCategory, categoryIdOf(task), slot) || !hasBit(byPriority, priorityIdOf(task), slot)) {
+                throw new IllegalStateException("task bitmaps have a stale category or priority for " + task.getCompactId());
+            }
+        }
+        int statusBits = 0;
+        for (BitSet bits : byStatus) {
+            statusBits += bits.cardinality();
+        }
+        if (statusBits != statused) {
+            throw new IllegalStateException("task bitmaps have " + statusBits + " status bits, expected " + statused);
+        }
+    }
+
+    private void setBits(int slot, Task task) {
+        statusOf[slot] = task.getStatus() == null ? NO_STATUS : (byte) task.getStatus().ordinal();
+        if (task.getStatus() != null) {
+            byStatus[task.getStatus().ordinal()].set(slot);
+        }
+        categoryOf[slot] = categoryIdOf(task);
+        priorityOf[slot] = priorityIdOf(task);
+        if (categoryOf[slot] != null) {
+            byCategory.computeIfAbsent(categoryOf[slot], id -> new BitSet()).set(slot);
+        }
+        if (priorityOf[slot] != null) {
+            byPriority.computeIfAbsent(priorityOf[slot], id -> new BitSet()).set(slot);
+        }
+    }
+
+    private void clearBits(int slot) {
+        if (statusOf[slot] != NO_STATUS) {
+            byStatus[statusOf[slot]].clear(slot);
+        }
+        clearBit(byCategory, categoryOf[slot], slot);
+        clearBit(byPriority, priorityOf[slot], slot);
+        categoryOf[slot] = null;
+        priorityOf[slot] = null;
+    }
+
+    private static void clearBit(Map<CompactId, BitSet> bitmaps, CompactId id, int slot) {
+        BitSet bits = id == null ? null : bitmaps.get(id);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                bitmaps.remove(id);
+            }
+        }
+    }
+
+    private static boolean hasBit(Map<CompactId, BitSet> bitmaps, CompactId id, int slot) {
+        return id == null || bitmaps.containsKey(id) && bitmaps.get(id).get(slot);
+    }
+
+    private static BitSet and(BitSet bits, BitSet other) {
+        if (other == null) {
+            return bits;
+        }
+        if (bits == null) {
+            return (BitSet) other.clone();
+        }
+        bits.and(other);
+        return bits;
+    }
+
+    private void grow() {
+        int capacity = tasks.length * 2;
+        tasks = Arrays.copyOf(tasks, capacity);
+        statusOf = Arrays.copyOf(statusOf, capacity);
+        categoryOf = Arrays.copyOf(categoryOf, capacity);
+        priorityOf = Arrays.copyOf(priorityOf, capacity);
+    }
+
+    private static CompactId categoryIdOf(Task task) {
+        return task.getCategory() == null ? null : task.getCategory().getCompactId();
+    }
+
+    private static CompactId priorityIdOf(Task task) {
+        return task.getPriority() == null ? null : task.getPriority().getCompactId();
+    }
+}
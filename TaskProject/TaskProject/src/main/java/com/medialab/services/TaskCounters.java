@@ -0,0 +1,38 @@
+package com.medialab.services;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+import java.util.concurrent.Executor;
+
+// Dashboard totals kept current by TaskService on every mutation, for binding summary labels.
+// Values change on the thread that performed the mutation unless notifyOn() names another
+// executor, such as Platform::runLater when mutations run off the JavaFX Application Thread.
+public class TaskCounters {
+    private final ReadOnlyIntegerWrapper total = new ReadOnlyIntegerWrapper(this, "total");
+    private final ReadOnlyIntegerWrapper completed = new ReadOnlyIntegerWrapper(this, "completed");
+    private final ReadOnlyIntegerWrapper delayed = new ReadOnlyIntegerWrapper(this, "delayed");
+    private final ReadOnlyIntegerWrapper upcoming = new ReadOnlyIntegerWrapper(this, "upcoming");
+    private volatile Executor notifier = Runnable::run;
+
+    TaskCounters() {
+    }
+
+    public ReadOnlyIntegerProperty totalProperty() { return total.getReadOnlyProperty(); }
+    public ReadOnlyIntegerProperty completedProperty() { return completed.getReadOnlyProperty(); }
+    public ReadOnlyIntegerProperty delayedProperty() { return delayed.getReadOnlyProperty(); }
+    public ReadOnlyIntegerProperty upcomingProperty() { return upcoming.getReadOnlyProperty(); }
+
+    public void notifyOn(Executor notifier) {
+        this.notifier = notifier;
+    }
+
+    void update(int total, int completed, int delayed, int upcoming) {
+        notifier.execute(() -> {
+            this.total.set(total);
+            this.completed.set(completed);
+            this.delayed.set(delayed);
+            this.upcoming.set(upcoming);
+        });
+    }
+}
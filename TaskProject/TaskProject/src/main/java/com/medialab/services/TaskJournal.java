@@ -0,0 +1,167 @@
+package com.medialab.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Append-only log of service mutations, one JSON record per line.
+// A save rotates the active file into a numbered closed segment (journal.log.1, .2, ...) while it copies
+// the store, and deletes the closed segments once the snapshots are written, so records appended during
+// the write survive in the new active file. Replay reads the closed segments in order, then the active file.
+class TaskJournal {
+    enum Op {
+        ADD_TASK, UPDATE_TASK, DELETE_TASK,
+        ADD_CATEGORY, UPDATE_CATEGORY, DELETE_CATEGORY,
+        ADD_PRIORITY, UPDATE_PRIORITY, DELETE_PRIORITY,
+        ADD_REMINDER, DELETE_REMINDER,
+        // data is an array of {op, data} records applied together
+        BATCH
+    }
+
+    interface RecordHandler {
+        void apply(Op op, JsonNode data) throws IOException;
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+    // Records in the active file, plus those replayed from closed segments at load
+    private int recordCount;
+    private int lastSegment = -1;
+
+    TaskJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    ObjectNode record(Op op, Object payload) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("op", op.name());
+        record.set("data", objectMapper.valueToTree(payload));
+        return record;
+    }
+
+    void append(Op op, Object payload) throws IOException {
+        ObjectNode record = record(op, payload);
+
+        if (writer == null) {
+            writer = Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(objectMapper.writeValueAsString(record));
+        writer.newLine();
+        writer.flush();
+        recordCount++;
+    }
+
+    // Returns false if the log ended in a torn record, which the caller should compact away
+    boolean replay(RecordHandler handler) throws IOException {
+        boolean intact = true;
+        for (Path segment : closedSegments()) {
+            intact &= replayFile(segment, handler);
+        }
+        if (Files.exists(path)) {
+            intact &= replayFile(path, handler);
+        }
+        return intact;
+    }
+
+    private boolean replayFile(Path file, RecordHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode record;
+                try {
+                    record = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    // A torn last line from a crash mid-append; everything before it is intact
+                    return false;
+                }
+                handler.apply(Op.valueOf(record.get("op").asText()), record.get("data"));
+                recordCount++;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return recordCount;
+    }
+
+    // Closes the active file and moves it to a new closed segment; appends go to a fresh active file.
+    // Returns the newest closed segment number, to pass to deleteSegmentsThrough once the store is saved.
+    int rotate() throws IOException {
+        close();
+        int segment = lastSegment();
+        if (Files.exists(path)) {
+            segment++;
+            Files.move(path, segmentPath(segment), StandardCopyOption.ATOMIC_MOVE);
+            lastSegment = segment;
+        }
+        recordCount = 0;
+        return segment;
+    }
+
+    void deleteSegmentsThrough(int segment) throws IOException {
+        for (Path closed : closedSegments()) {
+            if (segmentNumber(closed) <= segment) {
+                Files.deleteIfExists(closed);
+            }
+        }
+    }
+
+    private int lastSegment() throws IOException {
+        if (lastSegment < 0) {
+            lastSegment = 0;
+            for (Path closed : closedSegments()) {
+                lastSegment = Math.max(lastSegment, segmentNumber(closed));
+            }
+        }
+        return lastSegment;
+    }
+
+    private List<Path> closedSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Path dir = path.toAbsolutePath().getParent();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        String prefix = path.getFileName() + ".";
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().startsWith(prefix)
+                            && file.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                    .forEach(segments::add);
+        }
+        segments.sort((a, b) -> Integer.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    private Path segmentPath(int segment) {
+        return path.resolveSibling(path.getFileName() + "." + segment);
+    }
+
+    private int segmentNumber(Path segment) {
+        return Integer.parseInt(segment.getFileName().toString().substring(path.getFileName().toString().length() + 1));
+    }
+
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
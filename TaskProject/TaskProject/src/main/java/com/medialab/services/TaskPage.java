@@ -0,0 +1,27 @@
+package com.medialab.services;
+
+import com.medialab.models.Task;
+
+import java.util.Collections;
+import java.util.List;
+
+// One page of a TaskQuery result, with the number of tasks that matched in total
+public final class TaskPage {
+    private final List<Task> items;
+    private final int totalCount;
+    private final int offset;
+
+    TaskPage(List<Task> items, int totalCount, int offset) {
+        this.items = Collections.unmodifiableList(items);
+        this.totalCount = totalCount;
+        this.offset = offset;
+    }
+
+    public List<Task> getItems() { return items; }
+    public int getTotalCount() { return totalCount; }
+    public int getOffset() { return offset; }
+
+    public boolean hasMore() {
+        return offset + items.size() < totalCount;
+    }
+}
@@ -0,0 +1,156 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Task;
+import com.medialab.models.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+// Immutable description of a task query for TaskService.query. Every filter is optional;
+// unset filters match all tasks. Build one with TaskQuery.builder().
+public final class TaskQuery {
+    public enum SortKey {
+        TITLE(Comparator.comparing(Task::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))),
+        DEADLINE(Comparator.comparing(Task::getDeadline, Comparator.nullsLast(Comparator.naturalOrder()))),
+        STATUS(Comparator.comparing(Task::getStatus, Comparator.nullsLast(Comparator.naturalOrder()))),
+        CATEGORY(Comparator.comparing(task -> task.getCategory() == null ? null : task.getCategory().getName(),
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))),
+        PRIORITY(Comparator.comparing(task -> task.getPriority() == null ? null : task.getPriority().getName(),
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        private final Comparator<Task> comparator;
+
+        SortKey(Comparator<Task> comparator) {
+            this.comparator = comparator;
+        }
+
+        Comparator<Task> comparator() {
+            return comparator;
+        }
+    }
+
+    private final String text;
+    private final Category category;
+    private final Priority priority;
+    private final TaskStatus status;
+    private final LocalDate deadlineFrom;
+    private final LocalDate deadlineTo;
+    private final SortKey sortKey;
+    private final boolean descending;
+    private final int offset;
+    private final int limit;
+
+    private TaskQuery(Builder builder) {
+        this.text = builder.text;
+        this.category = builder.category;
+        this.priority = builder.priority;
+        this.status = builder.status;
+        this.deadlineFrom = builder.deadlineFrom;
+        this.deadlineTo = builder.deadlineTo;
+        this.sortKey = builder.sortKey;
+        this.descending = builder.descending;
+        this.offset = builder.offset;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getText() { return text; }
+    public Category getCategory() { return category; }
+    public Priority getPriority() { return priority; }
+    public TaskStatus getStatus() { return status; }
+    public LocalDate getDeadlineFrom() { return deadlineFrom; }
+    public LocalDate getDeadlineTo() { return deadlineTo; }
+    public SortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+
+    boolean hasDeadlineRange() {
+        return deadlineFrom != null || deadlineTo != null;
+    }
+
+    // Checks every filter except the text one, which only the text index can evaluate
+    boolean matchesAttributes(Task task) {
+        return (category == null || task.getCategory() != null && category.getCompactId().equals(task.getCategory().getCompactId()))
+                && (priority == null || task.getPriority() != null && priority.getCompactId().equals(task.getPriority().getCompactId()))
+                && (status == null || task.getStatus() == status)
+                && (!hasDeadlineRange() || task.getDeadline() != null
+                        && (deadlineFrom == null || !task.getDeadline().isBefore(deadlineFrom))
+                        && (deadlineTo == null || !task.getDeadline().isAfter(deadlineTo)));
+    }
+
+    public static final class Builder {
+        private String text;
+        private Category category;
+        private Priority priority;
+        private TaskStatus status;
+        private LocalDate deadlineFrom;
+        private LocalDate deadlineTo;
+        private SortKey sortKey;
+        private boolean descending;
+        private int offset;
+        private int limit = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        // Word prefixes to find in the title or description; blank text matches everything
+        public Builder text(String text) {
+            this.text = text == null || text.isBlank() ? null : text;
+            return this;
+        }
+
+        public Builder category(Category category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder status(TaskStatus status) {
+            this.status = status;
+            return this;
+        }
+
+        // Inclusive on both ends; either bound may be null for an open end
+        public Builder deadlineBetween(LocalDate from, LocalDate to) {
+            this.deadlineFrom = from;
+            this.deadlineTo = to;
+            return this;
+        }
+
+        public Builder sortBy(SortKey sortKey) {
+            return sortBy(sortKey, false);
+        }
+
+        public Builder sortBy(SortKey sortKey, boolean descending) {
+            this.sortKey = sortKey;
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder page(int offset, int limit) {
+            if (offset < 0 || limit < 0) {
+                throw new IllegalArgumentException("offset and limit must not be negative");
+            }
+            this.offset = offset;
+            this.limit = limit;
+            return this;
+        }
+
+        public TaskQuery build() {
+            if (deadlineFrom != null && deadlineTo != null && deadlineFrom.isAfter(deadlineTo)) {
+                throw new IllegalArgumentException("deadline range starts after it ends");
+            }
+            return new TaskQuery(this);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.medialab.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -9,38 +14,207 @@ import com.medialab.models.*;
 
 import java.io.*;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Safe for concurrent use. Readers share the read lock, and scalar reads try an optimistic stamp first;
+// writers are serialized by the write lock. StampedLock is not reentrant, so each public method
+// locks once and calls only unlocked private helpers.
 public class TaskService {
-    private static TaskService instance;
-    private List<Task> tasks;
-    private List<Category> categories;
-    private List<Priority> priorities;
-    private List<Reminder> reminders;
+    // Keyed by id; LinkedHashMap keeps insertion order for the tables
+    private Map<CompactId, Task> tasks;
+    private Map<CompactId, Category> categories;
+    private Map<CompactId, Priority> priorities;
+    private Map<CompactId, Reminder> reminders;
+    private final AttributeIndex<Task, CompactId> tasksByCategory = new AttributeIndex<>("category", Task::getCompactId,
+            task -> task.getCategory() == null ? null : task.getCategory().getCompactId(), HashMap::new);
+    private final AttributeIndex<Task, CompactId> tasksByPriority = new AttributeIndex<>("priority", Task::getCompactId,
+            task -> task.getPriority() == null ? null : task.getPriority().getCompactId(), HashMap::new);
+    private final AttributeIndex<Task, TaskStatus> tasksByStatus = new AttributeIndex<>("status", Task::getCompactId,
+            Task::getStatus, () -> new EnumMap<>(TaskStatus.class));
+    // Keyed by deadline epoch day
+    private final AttributeIndex<Task, Long> tasksByDeadline = new AttributeIndex<>("deadline", Task::getCompactId,
+            task -> task.getDeadline() == null ? null : task.getDeadline().toEpochDay(), TreeMap::new);
+    private volatile Clock clock = Clock.systemDefaultZone();
+    // Uncompleted tasks due on or before upcomingHorizon, filed under TRUE
+    private volatile LocalDate upcomingHorizon = LocalDate.now(clock).plusDays(7);
+    private final AttributeIndex<Task, Boolean> upcomingTasks = new AttributeIndex<>("upcoming", Task::getCompactId,
+            task -> isUpcoming(task) ? Boolean.TRUE : null, HashMap::new);
+    private final TextIndex taskText = new TextIndex();
+    private final TaskBitmaps taskBits = new TaskBitmaps();
+    private final AttributeIndex<Reminder, CompactId> remindersByTask = new AttributeIndex<>("reminder task", Reminder::getCompactId,
+            Reminder::getTaskCompactId, HashMap::new);
+    // Keyed by fire date epoch day
+    private final AttributeIndex<Reminder, Long> remindersByDate = new AttributeIndex<>("reminder date", Reminder::getCompactId,
+            reminder -> reminder.getReminderDate() == null ? null : reminder.getReminderDate().toEpochDay(), TreeMap::new);
+    // Optional struct-of-arrays copy of the task attributes for reports; null while disabled
+    private ColumnarTaskStore columns;
+    private final TaskCounters counters = new TaskCounters();
     private final String DATA_DIR = "src/main/resources/medialab";
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 1000;
     private final ObjectMapper objectMapper;
+    private final TaskJournal journal;
+    private boolean replaying;
+    private final EnumSet<DataFile> dirty = EnumSet.noneOf(DataFile.class);
+    private volatile boolean syncOnSave;
+    private volatile boolean binarySnapshotEnabled;
+    private final StampedLock lock = new StampedLock();
+    // Writers waiting for the lock; see writeLock()
+    private final AtomicInteger queuedWriters = new AtomicInteger();
+    private final Object saveLock = new Object();
+    private boolean compactionDue;
+    private volatile AutosaveScheduler autosave;
+    private volatile ReminderScheduler reminderScheduler;
+    private final List<ReminderListener> reminderListeners = new CopyOnWriteArrayList<>();
+    private volatile DayRolloverTimer dayRollover;
+    private final List<DayRolloverListener> rolloverListeners = new CopyOnWriteArrayList<>();
+    // Uncompleted tasks with deadlines before this day have been marked delayed; null until the first load
+    private LocalDate overdueFrom;
+    private final Map<String, Duration> loadTimings = new ConcurrentHashMap<>();
+    // Bumped by every write
+    private volatile long version;
+    // Persistent copies of the four maps in the same order, so snapshots share structure across versions
+    private final PersistentList<Task> taskList = new PersistentList<>();
+    private final PersistentList<Category> categoryList = new PersistentList<>();
+    private final PersistentList<Priority> priorityList = new PersistentList<>();
+    private final PersistentList<Reminder> reminderList = new PersistentList<>();
+    // Only set while applyBatch runs: undo actions, newest first, and the journal records held back
+    private Deque<Runnable> undoLog;
+    private List<ObjectNode> batchRecords;
+    private final LongAdder versionedUpdates = new LongAdder();
+    private final LongAdder versionConflicts = new LongAdder();
+
+    private enum DataFile {
+        TASKS("tasks.json", "tasks"),
+        CATEGORIES("categories.json", "categories"),
+        PRIORITIES("priorities.json", "priorities"),
+        REMINDERS("reminders.json", "reminders");
+
+        final String fileName;
+        final String rootField;
+
+        DataFile(String fileName, String rootField) {
+            this.fileName = fileName;
+            this.rootField = rootField;
+        }
+    }
 
     private TaskService() {
-        tasks = new ArrayList<>();
-        categories = new ArrayList<>();
-        priorities = new ArrayList<>();
-        reminders = new ArrayList<>();
+        tasks = new LinkedHashMap<>();
+        categories = new LinkedHashMap<>();
+        priorities = new LinkedHashMap<>();
+        reminders = new LinkedHashMap<>();
 
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        journal = new TaskJournal(Paths.get(DATA_DIR, "journal.log"), objectMapper);
 
         createDataDirIfNotExists();
         initializeDefaultPriority();
+        resetLists();
+    }
+
+    // Created on first use; class initialization makes that thread-safe without locking here
+    private static class Holder {
+        static final TaskService INSTANCE = new TaskService();
     }
 
     public static TaskService getInstance() {
-        if (instance == null) {
-            instance = new TaskService();
+        return Holder.INSTANCE;
+    }
+
+    // Locking
+    // Reads that walk maps, trees or the query planner hold the read lock: a traversal racing a writer
+    // could follow a half-linked node and loop rather than throw. Read bodies must never mutate the store.
+    private <T> T read(Supplier<T> body) {
+        if (queuedWriters.get() > 0) {
+            awaitWriterTurn();
+        }
+        long stamp = lock.readLock();
+        try {
+            return body.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // For scalar reads only (a size, a bucket count, a few fields): runs under an optimistic stamp,
+    // which neither waits for nor holds up writers, and repeats under the read lock if a writer got in
+    private <T> T readScalar(Supplier<T> body) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T value = body.get();
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Saw a field mid-update; fall through to the locked read
+            }
+        }
+        return read(body);
+    }
+
+    // StampedLock admits a new reader whenever the lock is read-held, so readers in a loop could keep a
+    // queued writer out indefinitely. A reader arriving while writers queue waits until one of them has
+    // taken the lock, which lets writers in without starving readers in turn.
+    private long writeLock() {
+        queuedWriters.incrementAndGet();
+        try {
+            return lock.writeLock();
+        } finally {
+            queuedWriters.decrementAndGet();
+            synchronized (queuedWriters) {
+                queuedWriters.notifyAll();
+            }
+        }
+    }
+
+    private void awaitWriterTurn() {
+        synchronized (queuedWriters) {
+            if (queuedWriters.get() > 0) {
+                try {
+                    queuedWriters.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void write(Runnable body) {
+        boolean compactNow;
+        long stamp = writeLock();
+        try {
+            version++;
+            body.run();
+        } finally {
+            compactNow = compactionDue;
+            compactionDue = false;
+            lock.unlockWrite(stamp);
+        }
+        if (compactNow) {
+            saveData();
         }
-        return instance;
     }
 
     private void createDataDirIfNotExists() {
@@ -56,114 +230,434 @@ public class TaskService {
             Priority defaultPriority = new Priority();
             defaultPriority.setName("Default");
             defaultPriority.setDefault(true);
-            priorities.add(defaultPriority);
+            priorities.put(defaultPriority.getCompactId(), defaultPriority);
+            markDirty(DataFile.PRIORITIES);
         }
     }
 
     // Task Operations
     public void addTask(Task task) {
-        tasks.add(task);
+        write(() -> putTask(task));
+    }
+
+    private void putTask(Task task) {
+        if (tasks.containsKey(task.getCompactId())) {
+            // Re-adding an existing id is an edit: the stored task's reminders must move to this instance
+            replaceTask(task);
+            return;
+        }
+        putEntry(tasks, taskList, task.getCompactId(), task);
+        markDelayedIfOverdue(task);
+        indexTask(task);
+        refreshCounters();
+        markDirty(DataFile.TASKS);
+        journal(TaskJournal.Op.ADD_TASK, task);
     }
 
     public void updateTask(Task task) {
-        int index = tasks.indexOf(task);
-        if (index != -1) {
-            tasks.set(index, task);
+        write(() -> replaceTask(task));
+    }
+
+    private void replaceTask(Task task) {
+        Task previous = tasks.get(task.getCompactId());
+        if (previous != null) {
+            long replacedVersion = task.getVersion();
+            recordUndo(() -> task.setVersion(replacedVersion));
+            task.setVersion(previous.getVersion() + 1);
+            putEntry(tasks, taskList, task.getCompactId(), task);
+            if (previous != task) {
+                task.getReminders().clear();
+                for (Reminder reminder : remindersByTask.get(task.getCompactId())) {
+                    recordUndo(() -> reminder.setTask(previous));
+                    reminder.setTask(task);
+                    task.getReminders().add(reminder);
+                }
+            }
+            markDelayedIfOverdue(task);
+            reindexTask(task);
+            updateFireDatesOf(task);
+            rescheduleRemindersOf(task);
+            refreshCounters();
+            markDirty(DataFile.TASKS);
+            journal(TaskJournal.Op.UPDATE_TASK, task);
         }
     }
 
     public void deleteTask(Task task) {
-        tasks.remove(task);
-        reminders.removeIf(reminder -> reminder.getTask().equals(task));
+        write(() -> removeTask(task));
+    }
+
+    // Versioned Operations
+    // Each applies the change only while the stored entity is still at expectedVersion, i.e. nobody
+    // changed it since the caller read it; otherwise nothing is written, a conflict is counted and
+    // false returned. Editors hold no lock while they edit, they only lose the race.
+    public boolean updateTask(Task task, long expectedVersion) {
+        return writeIfVersion(() -> tasks.get(task.getCompactId()), Task::getVersion, expectedVersion,
+                () -> replaceTask(task));
+    }
+
+    public boolean deleteTask(Task task, long expectedVersion) {
+        return writeIfVersion(() -> tasks.get(task.getCompactId()), Task::getVersion, expectedVersion,
+                () -> removeTask(task));
+    }
+
+    public boolean updateCategory(Category category, long expectedVersion) {
+        return writeIfVersion(() -> categories.get(category.getCompactId()), Category::getVersion, expectedVersion,
+                () -> replaceCategory(category));
+    }
+
+    public boolean updatePriority(Priority priority, long expectedVersion) {
+        return writeIfVersion(() -> priorities.get(priority.getCompactId()), Priority::getVersion, expectedVersion,
+                () -> replacePriority(priority));
+    }
+
+    public long getVersionedUpdateCount() {
+        return versionedUpdates.sum();
+    }
+
+    public long getVersionConflictCount() {
+        return versionConflicts.sum();
+    }
+
+    private <T> boolean writeIfVersion(Supplier<T> stored, ToLongFunction<T> versionOf, long expectedVersion,
+                                       Runnable body) {
+        boolean[] applied = new boolean[1];
+        write(() -> {
+            T current = stored.get();
+            if (current != null && versionOf.applyAsLong(current) == expectedVersion) {
+                body.run();
+                applied[0] = true;
+            }
+        });
+        versionedUpdates.increment();
+        if (!applied[0]) {
+            versionConflicts.increment();
+        }
+        return applied[0];
+    }
+
+    private void removeTask(Task task) {
+        Task removed = removeEntry(tasks, taskList, task.getCompactId());
+        if (removed != null) {
+            unindexTask(removed);
+            refreshCounters();
+            markDirty(DataFile.TASKS);
+        }
+        if (removeRemindersOf(task.getCompactId())) {
+            markDirty(DataFile.REMINDERS);
+        }
+        journal(TaskJournal.Op.DELETE_TASK, task.getId());
     }
 
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks);
+        return snapshot().getTasks();
     }
 
     public List<Task> getUncompletedTasks() {
-        return tasks.stream()
+        return read(() -> tasks.values().stream()
                 .filter(task -> task.getStatus() != TaskStatus.COMPLETED)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public int getTotalTasksCount() {
-        return tasks.size();
+        return readScalar(() -> tasks.size());
     }
 
     public int getCompletedTasksCount() {
-        return (int) tasks.stream()
-                .filter(task -> task.getStatus() == TaskStatus.COMPLETED)
-                .count();
+        return readScalar(() -> tasksByStatus.count(TaskStatus.COMPLETED));
     }
 
     public int getDelayedTasksCount() {
-        return (int) tasks.stream()
-                .filter(task -> task.getStatus() == TaskStatus.DELAYED)
-                .count();
+        return readScalar(() -> tasksByStatus.count(TaskStatus.DELAYED));
     }
 
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return read(() -> new ArrayList<>(tasksByStatus.get(status)));
+    }
+
+    // Uncompleted tasks due within the next week, including overdue ones
     public int getUpcomingTasksCount() {
-        LocalDate nextWeek = LocalDate.now().plusDays(7);
-        return (int) tasks.stream()
-                .filter(task -> !task.getDeadline().isAfter(nextWeek)
-                        && task.getStatus() != TaskStatus.COMPLETED)
-                .count();
+        if (!today().plusDays(7).equals(upcomingHorizon)) {
+            // refreshCounters advances the horizon and republishes, so the bound counters agree with the result
+            write(this::refreshCounters);
+        }
+        return readScalar(() -> upcomingTasks.count(Boolean.TRUE));
+    }
+
+    public TaskCounters getCounters() {
+        return counters;
+    }
+
+    // Deadline Queries
+    // All tasks due between the two dates inclusive, in deadline order
+    public List<Task> getTasksDueBetween(LocalDate from, LocalDate to) {
+        return read(() -> tasksByDeadline.range(from.toEpochDay(), to.toEpochDay()));
+    }
+
+    // Uncompleted tasks whose deadline is before the given date, in deadline order
+    public List<Task> getOverdueTasks(LocalDate asOf) {
+        return read(() -> overdueTasks(asOf));
+    }
+
+    private List<Task> overdueTasks(LocalDate asOf) {
+        return tasksByDeadline.streamRange(null, asOf.toEpochDay() - 1)
+                .filter(task -> task.getStatus() != TaskStatus.COMPLETED)
+                .collect(Collectors.toList());
+    }
+
+    // The next uncompleted tasks due today or later, in deadline order
+    public List<Task> getNextDueTasks(int count) {
+        return read(() -> tasksByDeadline.streamRange(today().toEpochDay(), null)
+                .filter(task -> task.getStatus() != TaskStatus.COMPLETED)
+                .limit(count)
+                .collect(Collectors.toList()));
+    }
+
+    // Report Operations
+    // Served from the columnar store when it is enabled, otherwise from the attribute indexes
+    public Map<TaskStatus, Integer> getTaskCountsByStatus() {
+        return read(() -> {
+            Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+            if (columns != null) {
+                int[] byStatus = columns.countByStatus();
+                for (TaskStatus status : TaskStatus.values()) {
+                    if (byStatus[status.ordinal()] > 0) {
+                        counts.put(status, byStatus[status.ordinal()]);
+                    }
+                }
+            } else {
+                tasksByStatus.buckets().forEach((status, bucket) -> counts.put(status, bucket.size()));
+            }
+            return counts;
+        });
+    }
+
+    public Map<Category, Integer> getTaskCountsByCategory() {
+        return read(() -> {
+            Map<CompactId, Integer> byId = columns != null ? columns.countByCategory() : bucketSizes(tasksByCategory);
+            Map<Category, Integer> counts = new LinkedHashMap<>();
+            for (Category category : categories.values()) {
+                Integer count = byId.get(category.getCompactId());
+                if (count != null) {
+                    counts.put(category, count);
+                }
+            }
+            return counts;
+        });
+    }
+
+    public Map<Priority, Integer> getTaskCountsByPriority() {
+        return read(() -> {
+            Map<CompactId, Integer> byId = columns != null ? columns.countByPriority() : bucketSizes(tasksByPriority);
+            Map<Priority, Integer> counts = new LinkedHashMap<>();
+            for (Priority priority : priorities.values()) {
+                Integer count = byId.get(priority.getCompactId());
+                if (count != null) {
+                    counts.put(priority, count);
+                }
+            }
+            return counts;
+        });
+    }
+
+    public int countTasksDueBetween(LocalDate from, LocalDate to, boolean uncompletedOnly) {
+        return read(() -> {
+            if (columns != null) {
+                return columns.countDueBetween((int) from.toEpochDay(), (int) to.toEpochDay(), uncompletedOnly);
+            }
+            return (int) tasksByDeadline.streamRange(from.toEpochDay(), to.toEpochDay())
+                    .filter(task -> !uncompletedOnly || task.getStatus() != TaskStatus.COMPLETED)
+                    .count();
+        });
+    }
+
+    // Counts on any combination of status, category and priority from the bitmaps; null means any
+    public int countTasks(TaskStatus status, Category category, Priority priority) {
+        return read(() -> taskBits.matching(status, compactIdOf(category), compactIdOf(priority)).cardinality());
+    }
+
+    // Tasks in any of the given statuses
+    public int countTasksInStatuses(Set<TaskStatus> statuses, Category category, Priority priority) {
+        return read(() -> {
+            BitSet inStatus = new BitSet();
+            for (TaskStatus status : statuses) {
+                inStatus.or(taskBits.status(status));
+            }
+            inStatus.and(taskBits.matching(null, compactIdOf(category), compactIdOf(priority)));
+            return inStatus.cardinality();
+        });
+    }
+
+    public int countUncompletedTasks(Category category, Priority priority) {
+        return read(() -> {
+            BitSet bits = taskBits.matching(null, compactIdOf(category), compactIdOf(priority));
+            bits.andNot(taskBits.status(TaskStatus.COMPLETED));
+            return bits.cardinality();
+        });
+    }
+
+    private static CompactId compactIdOf(Category category) {
+        return category == null ? null : category.getCompactId();
+    }
+
+    private static CompactId compactIdOf(Priority priority) {
+        return priority == null ? null : priority.getCompactId();
+    }
+
+    // The columnar copy costs memory per task, so it is only kept while reports need it
+    public void setColumnarStoreEnabled(boolean enabled) {
+        write(() -> {
+            if (!enabled) {
+                columns = null;
+            } else if (columns == null) {
+                columns = new ColumnarTaskStore();
+                for (Task task : tasks.values()) {
+                    columns.add(task);
+                }
+            }
+        });
+    }
+
+    private static Map<CompactId, Integer> bucketSizes(AttributeIndex<Task, CompactId> index) {
+        Map<CompactId, Integer> sizes = new HashMap<>();
+        index.buckets().forEach((id, bucket) -> sizes.put(id, bucket.size()));
+        return sizes;
     }
 
     // Category Operations
     public void addCategory(Category category) {
-        categories.add(category);
+        write(() -> putCategory(category));
+    }
+
+    private void putCategory(Category category) {
+        putEntry(categories, categoryList, category.getCompactId(), category);
+        markDirty(DataFile.CATEGORIES);
+        journal(TaskJournal.Op.ADD_CATEGORY, category);
     }
 
     public void updateCategory(Category category) {
-        int index = categories.indexOf(category);
-        if (index != -1) {
-            categories.set(index, category);
+        write(() -> replaceCategory(category));
+    }
+
+    private void replaceCategory(Category category) {
+        Category previous = categories.get(category.getCompactId());
+        if (previous != null) {
+            long replacedVersion = category.getVersion();
+            recordUndo(() -> category.setVersion(replacedVersion));
+            category.setVersion(previous.getVersion() + 1);
+            putEntry(categories, categoryList, category.getCompactId(), category);
+            if (previous != category) {
+                for (Task task : tasksByCategory.get(category.getCompactId())) {
+                    Category replaced = task.getCategory();
+                    recordUndo(() -> task.setCategory(replaced));
+                    task.setCategory(category);
+                }
+            }
+            markDirty(DataFile.CATEGORIES);
+            journal(TaskJournal.Op.UPDATE_CATEGORY, category);
         }
     }
 
     public void deleteCategory(Category category) {
-        categories.remove(category);
-        List<Task> tasksToRemove = tasks.stream()
-                .filter(task -> task.getCategory().equals(category))
-                .collect(Collectors.toList());
-        tasks.removeAll(tasksToRemove);
-        reminders.removeIf(reminder -> tasksToRemove.contains(reminder.getTask()));
+        write(() -> removeCategory(category));
+    }
+
+    private void removeCategory(Category category) {
+        if (removeEntry(categories, categoryList, category.getCompactId()) != null) {
+            markDirty(DataFile.CATEGORIES);
+        }
+        List<Task> tasksToRemove = new ArrayList<>(tasksByCategory.get(category.getCompactId()));
+        boolean removedReminders = false;
+        for (Task task : tasksToRemove) {
+            removeEntry(tasks, taskList, task.getCompactId());
+            unindexTask(task);
+            removedReminders |= removeRemindersOf(task.getCompactId());
+        }
+        if (!tasksToRemove.isEmpty()) {
+            refreshCounters();
+            markDirty(DataFile.TASKS);
+        }
+        if (removedReminders) {
+            markDirty(DataFile.REMINDERS);
+        }
+        journal(TaskJournal.Op.DELETE_CATEGORY, category.getId());
     }
 
     public List<Category> getCategories() {
-        return new ArrayList<>(categories);
+        return snapshot().getCategories();
     }
 
     // Priority Operations
     public void addPriority(Priority priority) {
-        priorities.add(priority);
+        write(() -> putPriority(priority));
+    }
+
+    private void putPriority(Priority priority) {
+        putEntry(priorities, priorityList, priority.getCompactId(), priority);
+        markDirty(DataFile.PRIORITIES);
+        journal(TaskJournal.Op.ADD_PRIORITY, priority);
     }
 
     public void updatePriority(Priority priority) {
-        int index = priorities.indexOf(priority);
-        if (index != -1) {
-            priorities.set(index, priority);
+        write(() -> replacePriority(priority));
+    }
+
+    private void replacePriority(Priority priority) {
+        Priority previous = priorities.get(priority.getCompactId());
+        if (previous != null) {
+            long replacedVersion = priority.getVersion();
+            recordUndo(() -> priority.setVersion(replacedVersion));
+            priority.setVersion(previous.getVersion() + 1);
+            putEntry(priorities, priorityList, priority.getCompactId(), priority);
+            if (previous != priority) {
+                for (Task task : tasksByPriority.get(priority.getCompactId())) {
+                    Priority replaced = task.getPriority();
+                    recordUndo(() -> task.setPriority(replaced));
+                    task.setPriority(priority);
+                }
+            }
+            markDirty(DataFile.PRIORITIES);
+            journal(TaskJournal.Op.UPDATE_PRIORITY, priority);
         }
     }
 
     public void deletePriority(Priority priority) {
+        write(() -> removePriority(priority));
+    }
+
+    private void removePriority(Priority priority) {
         if (!priority.isDefault()) {
-            priorities.remove(priority);
-            Priority defaultPriority = getDefaultPriority();
-            tasks.stream()
-                    .filter(task -> task.getPriority().equals(priority))
-                    .forEach(task -> task.setPriority(defaultPriority));
+            removeEntry(priorities, priorityList, priority.getCompactId());
+            markDirty(DataFile.PRIORITIES);
+            Priority defaultPriority = defaultPriority();
+            for (Task task : new ArrayList<>(tasksByPriority.get(priority.getCompactId()))) {
+                Priority previous = task.getPriority();
+                recordUndo(() -> task.setPriority(previous));
+                task.setPriority(defaultPriority);
+                long replacedVersion = task.getVersion();
+                recordUndo(() -> task.setVersion(replacedVersion));
+                task.setVersion(replacedVersion + 1);
+                tasksByPriority.update(task);
+                taskBits.update(task);
+                if (columns != null) {
+                    columns.update(task);
+                }
+                markDirty(DataFile.TASKS);
+            }
+            journal(TaskJournal.Op.DELETE_PRIORITY, priority.getId());
         }
     }
 
     public List<Priority> getPriorities() {
-        return new ArrayList<>(priorities);
+        return snapshot().getPriorities();
     }
 
     public Priority getDefaultPriority() {
-        return priorities.stream()
+        return read(() -> defaultPriority());
+    }
+
+    private Priority defaultPriority() {
+        return priorities.values().stream()
                 .filter(Priority::isDefault)
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("No default priority found"));
@@ -171,148 +665,1192 @@ public class TaskService {
 
     // Reminder Operations
     public void addReminder(Reminder reminder) {
-        reminders.add(reminder);
+        write(() -> putReminder(reminder));
+    }
+
+    private void putReminder(Reminder reminder) {
+        Reminder previous = putEntry(reminders, reminderList, reminder.getCompactId(), reminder);
+        if (previous != null) {
+            long replacedVersion = reminder.getVersion();
+            recordUndo(() -> reminder.setVersion(replacedVersion));
+            reminder.setVersion(previous.getVersion() + 1);
+            unlinkReminder(previous);
+        }
+        // The caller's task may have been replaced by another thread since it was read
+        findTaskById(reminder.getTaskCompactId()).ifPresent(reminder::setTask);
+        updateFireDate(reminder);
+        linkReminder(reminder);
+        scheduleReminder(reminder);
+        markDirty(DataFile.REMINDERS);
+        journal(TaskJournal.Op.ADD_REMINDER, reminder);
     }
 
     public void deleteReminder(Reminder reminder) {
-        reminders.remove(reminder);
+        write(() -> removeReminder(reminder));
+    }
+
+    private void removeReminder(Reminder reminder) {
+        Reminder removed = removeEntry(reminders, reminderList, reminder.getCompactId());
+        if (removed != null) {
+            unlinkReminder(removed);
+            cancelReminder(removed);
+            markDirty(DataFile.REMINDERS);
+        }
+        journal(TaskJournal.Op.DELETE_REMINDER, reminder.getId());
     }
 
     public List<Reminder> getAllReminders() {
-        return new ArrayList<>(reminders);
+        return snapshot().getReminders();
+    }
+
+    // Snapshot Operations
+    // O(1) after any write: each list is a view of a persistent tree root, so nothing is copied here
+    // and a write only path-copies the O(log n) nodes it touched.
+    public TaskSnapshot snapshot() {
+        return readScalar(() -> new TaskSnapshot(version, taskList.view(), categoryList.view(), priorityList.view(),
+                reminderList.view()));
+    }
+
+    // For loads and rollbacks that swap or restore whole maps; O(n)
+    private void resetLists() {
+        taskList.reset(tasks.values(), Task::getCompactId);
+        categoryList.reset(categories.values(), Category::getCompactId);
+        priorityList.reset(priorities.values(), Priority::getCompactId);
+        reminderList.reset(reminders.values(), Reminder::getCompactId);
+    }
+
+    // Reminders firing on a day in [from, to], in date order; either bound may be null for an open end
+    public List<Reminder> getRemindersDueBetween(LocalDate from, LocalDate to) {
+        return read(() -> remindersByDate.range(from == null ? null : from.toEpochDay(),
+                to == null ? null : to.toEpochDay()));
+    }
+
+    public int countRemindersDueBetween(LocalDate from, LocalDate to) {
+        return read(() -> remindersByDate.countRange(from == null ? null : from.toEpochDay(),
+                to == null ? null : to.toEpochDay()));
+    }
+
+    public List<Reminder> getRemindersDueToday() {
+        LocalDate today = today();
+        return getRemindersDueBetween(today, today);
+    }
+
+    public List<Reminder> getRemindersDueThisWeek() {
+        LocalDate today = today();
+        return getRemindersDueBetween(today, today.plusDays(6));
+    }
+
+    public List<Reminder> getRemindersForTask(Task task) {
+        return read(() -> new ArrayList<>(remindersByTask.get(task.getCompactId())));
+    }
+
+    // Files the reminder under its task id and fire date and on the task's own reminder list
+    private void linkReminder(Reminder reminder) {
+        remindersByTask.add(reminder);
+        remindersByDate.add(reminder);
+        if (reminder.getTask() != null) {
+            reminder.getTask().getReminders().add(reminder);
+        }
+    }
+
+    private void unlinkReminder(Reminder reminder) {
+        remindersByTask.remove(reminder);
+        remindersByDate.remove(reminder);
+        if (reminder.getTask() != null) {
+            reminder.getTask().getReminders().remove(reminder);
+        }
+    }
+
+    // Derives the fire date from the type and the task deadline. Returns true if it changed.
+    private boolean updateFireDate(Reminder reminder) {
+        if (reminder.getType() == null || reminder.getType() == Reminder.ReminderType.CUSTOM) {
+            return false;
+        }
+        LocalDate deadline = reminder.getTask() == null ? null : reminder.getTask().getDeadline();
+        LocalDate fireDate = reminder.getType().fireDate(deadline, reminder.getReminderDate());
+        if (Objects.equals(fireDate, reminder.getReminderDate())) {
+            return false;
+        }
+        LocalDate previous = reminder.getReminderDate();
+        recordUndo(() -> reminder.setReminderDate(previous));
+        reminder.setReminderDate(fireDate);
+        return true;
+    }
+
+    // After a task edit only its own reminders are looked at, and only those whose date moved are
+    // re-filed and rescheduled
+    private void updateFireDatesOf(Task task) {
+        boolean changed = false;
+        for (Reminder reminder : new ArrayList<>(remindersByTask.get(task.getCompactId()))) {
+            if (updateFireDate(reminder)) {
+                long replacedVersion = reminder.getVersion();
+                recordUndo(() -> reminder.setVersion(replacedVersion));
+                reminder.setVersion(replacedVersion + 1);
+                remindersByDate.update(reminder);
+                scheduleReminder(reminder);
+                changed = true;
+            }
+        }
+        if (changed) {
+            markDirty(DataFile.REMINDERS);
+        }
+    }
+
+    // Touches only the reminders filed under the task
+    private boolean removeRemindersOf(CompactId taskId) {
+        List<Reminder> removed = new ArrayList<>(remindersByTask.get(taskId));
+        for (Reminder reminder : removed) {
+            removeEntry(reminders, reminderList, reminder.getCompactId());
+            unlinkReminder(reminder);
+            cancelReminder(reminder);
+        }
+        return !removed.isEmpty();
+    }
+
+    // Batch Operations
+    // Applies every operation recorded by the callback under one write lock, in order, as one journal
+    // record, one counter update and one autosave change. The batch is validated before anything is
+    // applied; if an operation still fails, the store is put back as it was and the exception rethrown.
+    // Edits the caller made directly on entity objects before the batch are not undone.
+    public void applyBatch(Consumer<TaskBatch> operations) {
+        TaskBatch batch = new TaskBatch();
+        operations.accept(batch);
+        if (batch.size() > 0) {
+            write(() -> applyBatchLocked(batch.operations()));
+        }
+    }
+
+    private void applyBatchLocked(List<TaskBatch.Operation> operations) {
+        validateBatch(operations);
+        // The persistent lists record the pre-batch contents and order for free; the undo log covers
+        // the fields changed on entities that stay in the store
+        List<Task> tasksBefore = taskList.view();
+        List<Category> categoriesBefore = categoryList.view();
+        List<Priority> prioritiesBefore = priorityList.view();
+        List<Reminder> remindersBefore = reminderList.view();
+        undoLog = new ArrayDeque<>();
+        batchRecords = new ArrayList<>();
+        List<ObjectNode> records = batchRecords;
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                applyOperation(operation);
+            }
+        } catch (RuntimeException e) {
+            while (!undoLog.isEmpty()) {
+                undoLog.pop().run();
+            }
+            undoLog = null;
+            batchRecords = null;
+            restoreFrom(tasks, tasksBefore, Task::getCompactId);
+            restoreFrom(categories, categoriesBefore, Category::getCompactId);
+            restoreFrom(priorities, prioritiesBefore, Priority::getCompactId);
+            restoreFrom(reminders, remindersBefore, Reminder::getCompactId);
+            rebuildIndexes();
+            rescheduleAllReminders();
+            refreshCounters();
+            throw e;
+        }
+        undoLog = null;
+        batchRecords = null;
+        refreshCounters();
+        appendJournal(TaskJournal.Op.BATCH, records);
+    }
+
+    private void validateBatch(List<TaskBatch.Operation> operations) {
+        Set<CompactId> addedTasks = new HashSet<>();
+        for (TaskBatch.Operation operation : operations) {
+            switch (operation.op) {
+                case ADD_TASK:
+                    addedTasks.add(((Task) operation.entity).getCompactId());
+                    break;
+                case DELETE_PRIORITY:
+                    if (((Priority) operation.entity).isDefault()) {
+                        throw new IllegalArgumentException("The default priority cannot be deleted");
+                    }
+                    break;
+                case ADD_REMINDER:
+                    CompactId taskId = ((Reminder) operation.entity).getTaskCompactId();
+                    if (taskId == null || (!tasks.containsKey(taskId) && !addedTasks.contains(taskId))) {
+                        throw new IllegalArgumentException("Reminder " + ((Reminder) operation.entity).getId()
+                                + " refers to an unknown task");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void applyOperation(TaskBatch.Operation operation) {
+        switch (operation.op) {
+            case ADD_TASK:
+                putTask((Task) operation.entity);
+                break;
+            case UPDATE_TASK:
+                replaceTask((Task) operation.entity);
+                break;
+            case DELETE_TASK:
+                removeTask((Task) operation.entity);
+                break;
+            case ADD_CATEGORY:
+                putCategory((Category) operation.entity);
+                break;
+            case UPDATE_CATEGORY:
+                replaceCategory((Category) operation.entity);
+                break;
+            case DELETE_CATEGORY:
+                removeCategory((Category) operation.entity);
+                break;
+            case ADD_PRIORITY:
+                putPriority((Priority) operation.entity);
+                break;
+            case UPDATE_PRIORITY:
+                replacePriority((Priority) operation.entity);
+                break;
+            case DELETE_PRIORITY:
+                removePriority((Priority) operation.entity);
+                break;
+            case ADD_REMINDER:
+                putReminder((Reminder) operation.entity);
+                break;
+            case DELETE_REMINDER:
+                removeReminder((Reminder) operation.entity);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported batch operation " + operation.op);
+        }
+    }
+
+    // Map writes of the mutation helpers go through these so a failed batch can put them back
+    // Map writes of the mutation helpers keep the persistent list in step. A failed batch needs no undo
+    // for them: it refills the maps from the lists taken before it, in their original order.
+    private <T> T putEntry(Map<CompactId, T> map, PersistentList<T> list, CompactId id, T value) {
+        T previous = map.put(id, value);
+        list.put(id, value);
+        return previous;
+    }
+
+    private <T> T removeEntry(Map<CompactId, T> map, PersistentList<T> list, CompactId id) {
+        T previous = map.remove(id);
+        if (previous != null) {
+            list.remove(id);
+        }
+        return previous;
+    }
+
+    private static <T> void restoreFrom(Map<CompactId, T> map, List<T> before, Function<T, CompactId> idOf) {
+        map.clear();
+        for (T value : before) {
+            map.put(idOf.apply(value), value);
+        }
+    }
+
+    private void recordUndo(Runnable undo) {
+        if (undoLog != null) {
+            undoLog.push(undo);
+        }
+    }
+
+    // Reminder Scheduling
+    // Fires each reminder of an uncompleted task on its reminder date, to the registered listeners.
+    // Changes to reminders and task status reschedule only the reminders concerned.
+    public void startReminderScheduler() {
+        stopReminderScheduler();
+        write(() -> {
+            reminderScheduler = new ReminderScheduler(clock, this::reminderDue);
+            rescheduleAllReminders();
+        });
+    }
+
+    public void stopReminderScheduler() {
+        ReminderScheduler current;
+        long stamp = writeLock();
+        try {
+            current = reminderScheduler;
+            reminderScheduler = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    public void addReminderListener(ReminderListener listener) {
+        reminderListeners.add(listener);
+    }
+
+    public void removeReminderListener(ReminderListener listener) {
+        reminderListeners.remove(listener);
+    }
+
+    public int getPendingReminderCount() {
+        ReminderScheduler current = reminderScheduler;
+        return current == null ? 0 : current.getPendingCount();
+    }
+
+    public long getFiredReminderCount() {
+        ReminderScheduler current = reminderScheduler;
+        return current == null ? 0 : current.getFiredCount();
+    }
+
+    private void reminderDue(Reminder reminder) {
+        for (ReminderListener listener : reminderListeners) {
+            try {
+                listener.reminderDue(reminder);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static boolean isReminderActive(Reminder reminder) {
+        return reminder.getTask() != null && reminder.getTask().getStatus() != TaskStatus.COMPLETED;
+    }
+
+    private void scheduleReminder(Reminder reminder) {
+        ReminderScheduler scheduler = reminderScheduler;
+        if (scheduler != null) {
+            if (isReminderActive(reminder)) {
+                scheduler.schedule(reminder);
+            } else {
+                scheduler.cancel(reminder);
+            }
+        }
+    }
+
+    private void cancelReminder(Reminder reminder) {
+        ReminderScheduler scheduler = reminderScheduler;
+        if (scheduler != null) {
+            scheduler.cancel(reminder);
+        }
+    }
+
+    // Completing a task silences its reminders; reopening it brings back those not yet due
+    private void rescheduleRemindersOf(Task task) {
+        ReminderScheduler scheduler = reminderScheduler;
+        if (scheduler != null) {
+            for (Reminder reminder : remindersByTask.get(task.getCompactId())) {
+                if (isReminderActive(reminder)) {
+                    scheduler.resume(reminder);
+                } else {
+                    scheduler.cancel(reminder);
+                }
+            }
+        }
+    }
+
+    private void rescheduleAllReminders() {
+        ReminderScheduler scheduler = reminderScheduler;
+        if (scheduler != null) {
+            scheduler.replaceAll(reminders.values().stream()
+                    .filter(TaskService::isReminderActive)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    // Day Rollover
+    // Tests and simulations can substitute the clock; schedulers started afterwards use it too
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    // Runs runDayRollover at the start of every day
+    public void startDayRollover() {
+        stopDayRollover();
+        write(() -> dayRollover = new DayRolloverTimer(clock, this::runDayRollover));
+    }
+
+    public void stopDayRollover() {
+        DayRolloverTimer current;
+        long stamp = writeLock();
+        try {
+            current = dayRollover;
+            dayRollover = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    public void addDayRolloverListener(DayRolloverListener listener) {
+        rolloverListeners.add(listener);
+    }
+
+    public void removeDayRolloverListener(DayRolloverListener listener) {
+        rolloverListeners.remove(listener);
+    }
+
+    // Marks delayed the uncompleted tasks whose deadline passed since the last rollover and moves the
+    // upcoming window to the clock's current day. Returns the tasks that became delayed.
+    public List<Task> runDayRollover() {
+        LocalDate[] today = new LocalDate[1];
+        List<Task> delayed = new ArrayList<>();
+        write(() -> {
+            today[0] = today();
+            delayed.addAll(rollOverTo(today[0]));
+        });
+        for (DayRolloverListener listener : rolloverListeners) {
+            try {
+                listener.dayStarted(today[0], delayed);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        return delayed;
+    }
+
+    // Only the deadline range [overdueFrom, today) is read from the deadline index, so a rollover
+    // touches just the tasks that fell due since the last one. Not journaled: the status follows
+    // from the date and is worked out again at every load.
+    private List<Task> rollOverTo(LocalDate today) {
+        List<Task> delayed = new ArrayList<>();
+        if (overdueFrom == null || today.isAfter(overdueFrom)) {
+            Long from = overdueFrom == null ? null : overdueFrom.toEpochDay();
+            for (Task task : tasksByDeadline.range(from, today.toEpochDay() - 1)) {
+                if (task.getStatus() != TaskStatus.COMPLETED && task.getStatus() != TaskStatus.DELAYED) {
+                    task.setStatus(TaskStatus.DELAYED);
+                    task.setVersion(task.getVersion() + 1);
+                    reindexTask(task);
+                    delayed.add(task);
+                }
+            }
+            overdueFrom = today;
+        }
+        if (!delayed.isEmpty()) {
+            markDirty(DataFile.TASKS);
+            if (autosave != null && !replaying) {
+                autosave.changed();
+            }
+        }
+        refreshCounters();
+        return delayed;
+    }
+
+    // Rollovers only look at deadlines from overdueFrom on, so a task added, edited or reopened with a
+    // deadline before it is marked delayed here instead
+    private void markDelayedIfOverdue(Task task) {
+        if (overdueFrom != null && task.getDeadline() != null && task.getDeadline().isBefore(overdueFrom)
+                && task.getStatus() != TaskStatus.COMPLETED) {
+            TaskStatus replacedStatus = task.getStatus();
+            recordUndo(() -> task.setStatus(replacedStatus));
+            task.setStatus(TaskStatus.DELAYED);
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
     }
 
     // Search Operations
+    // The text filter matches word prefixes in the title or description through the text index
     public List<Task> searchTasks(String title, Category category, Priority priority) {
-        return tasks.stream()
-                .filter(task ->
-                        (title == null || task.getTitle().toLowerCase().contains(title.toLowerCase())) &&
-                                (category == null || task.getCategory().equals(category)) &&
-                                (priority == null || task.getPriority().equals(priority)))
-                .collect(Collectors.toList());
+        return query(TaskQuery.builder()
+                .text(title)
+                .category(category)
+                .priority(priority)
+                .build()).getItems();
+    }
+
+    // Null only when there is no text filter. Text with no indexable term, such as "-" or "!!", is
+    // matched as a title substring the way search worked before the text index.
+    private Map<CompactId, Task> textMatches(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Map<CompactId, Task> matches = taskText.search(text);
+        if (matches == null) {
+            matches = new LinkedHashMap<>();
+            String needle = text.toLowerCase();
+            for (Task task : tasks.values()) {
+                if (task.getTitle() != null && task.getTitle().toLowerCase().contains(needle)) {
+                    matches.put(task.getCompactId(), task);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Drives the scan from the most selective filter that has an index (text matches, category,
+    // priority or status bucket, deadline range) and checks the remaining filters on each candidate
+    public TaskPage query(TaskQuery query) {
+        return read(() -> {
+            Map<CompactId, Task> textMatches = textMatches(query.getText());
+            Collection<Task> candidates = textMatches == null ? tasks.values() : textMatches.values();
+            if (query.getCategory() != null && tasksByCategory.count(query.getCategory().getCompactId()) < candidates.size()) {
+                candidates = tasksByCategory.get(query.getCategory().getCompactId());
+            }
+            if (query.getPriority() != null && tasksByPriority.count(query.getPriority().getCompactId()) < candidates.size()) {
+                candidates = tasksByPriority.get(query.getPriority().getCompactId());
+            }
+            if (query.getStatus() != null && tasksByStatus.count(query.getStatus()) < candidates.size()) {
+                candidates = tasksByStatus.get(query.getStatus());
+            }
+            Stream<Task> scan = candidates.stream();
+            int scanSize = candidates.size();
+            // Two or more of status, category and priority are intersected on the bitmaps first
+            int attributeFilters = (query.getStatus() != null ? 1 : 0) + (query.getCategory() != null ? 1 : 0)
+                    + (query.getPriority() != null ? 1 : 0);
+            if (attributeFilters > 1) {
+                BitSet bits = taskBits.matching(query.getStatus(), compactIdOf(query.getCategory()),
+                        compactIdOf(query.getPriority()));
+                int count = bits.cardinality();
+                if (count < scanSize) {
+                    scan = taskBits.stream(bits);
+                    scanSize = count;
+                }
+            }
+            boolean deadlineOrdered = false;
+            if (query.hasDeadlineRange()) {
+                Long from = query.getDeadlineFrom() == null ? null : query.getDeadlineFrom().toEpochDay();
+                Long to = query.getDeadlineTo() == null ? null : query.getDeadlineTo().toEpochDay();
+                if (tasksByDeadline.countRange(from, to) < scanSize) {
+                    scan = tasksByDeadline.streamRange(from, to);
+                    deadlineOrdered = true;
+                }
+            }
+            List<Task> matches = scan
+                    .filter(task -> (textMatches == null || textMatches.containsKey(task.getCompactId()))
+                            && query.matchesAttributes(task))
+                    .collect(Collectors.toList());
+
+            TaskQuery.SortKey sortKey = query.getSortKey();
+            boolean alreadySorted = deadlineOrdered && sortKey == TaskQuery.SortKey.DEADLINE && !query.isDescending();
+            if (sortKey != null && !alreadySorted) {
+                Comparator<Task> order = sortKey.comparator();
+                matches.sort(query.isDescending() ? order.reversed() : order);
+            }
+            int from = Math.min(query.getOffset(), matches.size());
+            int to = (int) Math.min((long) from + query.getLimit(), matches.size());
+            return new TaskPage(new ArrayList<>(matches.subList(from, to)), matches.size(), query.getOffset());
+        });
     }
 
     // Data Load/Save Operations
     public void loadData() {
+        write(() -> {
+            loadTimings.clear();
+            try {
+                if (binarySnapshotEnabled && isBinarySnapshotCurrent()) {
+                    long start = System.nanoTime();
+                    applySnapshot(BinarySnapshot.read(Paths.get(DATA_DIR, BinarySnapshot.FILE_NAME)));
+                    loadTimings.put(BinarySnapshot.FILE_NAME, Duration.ofNanos(System.nanoTime() - start));
+                } else {
+                    loadJsonFiles();
+                }
+                rebuildIndexes();
+                replayJournal();
+                overdueFrom = null;
+                rollOverTo(today());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            rescheduleAllReminders();
+            refreshCounters();
+        });
+    }
+
+    // The four files are parsed concurrently; only the linking pass runs on the calling thread
+    private void loadJsonFiles() throws IOException {
+        ExecutorService loaders = Executors.newFixedThreadPool(DataFile.values().length, runnable -> {
+            Thread thread = new Thread(runnable, "task-data-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            loadCategories();
-            loadPriorities();
-            loadTasks();
-            loadReminders();
-            updateDelayedTasks();
-        } catch (IOException e) {
-            e.printStackTrace();
+            Future<List<Category>> loadedCategories = loaders.submit(() -> parseDataFile(DataFile.CATEGORIES, Category.class));
+            Future<List<Priority>> loadedPriorities = loaders.submit(() -> parseDataFile(DataFile.PRIORITIES, Priority.class));
+            Future<List<Task>> loadedTasks = loaders.submit(() -> parseDataFile(DataFile.TASKS, Task.class));
+            Future<List<Reminder>> loadedReminders = loaders.submit(() -> parseDataFile(DataFile.REMINDERS, Reminder.class));
+
+            applyCategories(await(loadedCategories));
+            applyPriorities(loadedPriorities);
+            List<Task> parsedTasks = await(loadedTasks);
+            List<Reminder> parsedReminders = await(loadedReminders);
+
+            long linkStart = System.nanoTime();
+            applyTasks(parsedTasks);
+            applyReminders(parsedReminders);
+            loadTimings.put("linking", Duration.ofNanos(System.nanoTime() - linkStart));
+        } finally {
+            loaders.shutdown();
         }
     }
 
-    private void loadTasks() throws IOException {
-        Path path = Paths.get(DATA_DIR, "tasks.json");
-        if (Files.exists(path)) {
-            JsonNode rootNode = objectMapper.readTree(path.toFile());
-            JsonNode tasksNode = rootNode.get("tasks");
-            tasks = new ArrayList<>(Arrays.asList(objectMapper.treeToValue(tasksNode, Task[].class)));
+    public Map<String, Duration> getLoadTimings() {
+        return Collections.unmodifiableMap(loadTimings);
+    }
 
-            // Link tasks with categories and priorities
-            for (Task task : tasks) {
-                task.setCategory(findCategoryById(task.getCategoryId()));
-                task.setPriority(findPriorityById(task.getPriorityId()));
+    // Binary snapshots are an optional faster startup image; the JSON files stay the interchange format
+    public void setBinarySnapshotEnabled(boolean binarySnapshotEnabled) {
+        this.binarySnapshotEnabled = binarySnapshotEnabled;
+    }
+
+    // Rewrites snapshot.bin from the current store when binary snapshots are enabled. Called at shutdown
+    // after saveData(), not on every save: the image covers the whole store, so refreshing it from
+    // autosave would rewrite every task for each small change. Until then the JSON files are newer and
+    // loadData() falls back to them.
+    public void saveBinarySnapshot() {
+        if (!binarySnapshotEnabled) {
+            return;
+        }
+        synchronized (saveLock) {
+            TaskSnapshot current = snapshot();
+            try {
+                BinarySnapshot.write(Paths.get(DATA_DIR, BinarySnapshot.FILE_NAME), new BinarySnapshot.Contents(
+                        current.getCategories(), current.getPriorities(), current.getTasks(), current.getReminders()));
+            } catch (IOException e) {
+                e.printStackTrace();
             }
         }
     }
 
-    private void loadCategories() throws IOException {
-        Path path = Paths.get(DATA_DIR, "categories.json");
-        if (Files.exists(path)) {
-            JsonNode rootNode = objectMapper.readTree(path.toFile());
-            JsonNode categoriesNode = rootNode.get("categories");
-            categories = new ArrayList<>(Arrays.asList(objectMapper.treeToValue(categoriesNode, Category[].class)));
+    public void exportBinarySnapshot(Path path) throws IOException {
+        BinarySnapshot.write(path, read(() -> new BinarySnapshot.Contents(new ArrayList<>(categories.values()),
+                new ArrayList<>(priorities.values()), new ArrayList<>(tasks.values()), new ArrayList<>(reminders.values()))));
+    }
+
+    // Replaces the in-memory store; the next saveData() rewrites every JSON file from it
+    public void importBinarySnapshot(Path path) throws IOException {
+        BinarySnapshot.Contents contents = BinarySnapshot.read(path);
+        write(() -> {
+            applySnapshot(contents);
+            rebuildIndexes();
+            rescheduleAllReminders();
+            refreshCounters();
+            dirty.addAll(EnumSet.allOf(DataFile.class));
+        });
+    }
+
+    // Only trusted when no JSON file was written after it
+    private boolean isBinarySnapshotCurrent() throws IOException {
+        Path snapshotPath = Paths.get(DATA_DIR, BinarySnapshot.FILE_NAME);
+        if (!Files.exists(snapshotPath)) {
+            return false;
+        }
+        FileTime snapshotTime = Files.getLastModifiedTime(snapshotPath);
+        for (DataFile file : DataFile.values()) {
+            Path path = Paths.get(DATA_DIR, file.fileName);
+            if (Files.exists(path) && Files.getLastModifiedTime(path).compareTo(snapshotTime) > 0) {
+                return false;
+            }
         }
+        return true;
     }
 
-    private void loadPriorities() throws IOException {
-        Path path = Paths.get(DATA_DIR, "priorities.json");
-        if (Files.exists(path)) {
-            try {
-                JsonNode rootNode = objectMapper.readTree(path.toFile());
-                JsonNode prioritiesNode = rootNode.get("priorities");
-                priorities = new ArrayList<>(Arrays.asList(objectMapper.treeToValue(prioritiesNode, Priority[].class)));
-            } catch (Exception e) {
-                e.printStackTrace();
-                priorities = new ArrayList<>();
+    private void applySnapshot(BinarySnapshot.Contents contents) {
+        categories = byId(contents.categories, Category::getCompactId);
+        priorities = byId(contents.priorities, Priority::getCompactId);
+        tasks = byId(contents.tasks, Task::getCompactId);
+        reminders = byId(contents.reminders, Reminder::getCompactId);
+        dirty.clear();
+        initializeDefaultPriority();
+        for (Task task : tasks.values()) {
+            if (task.getPriority() == null) {
+                task.setPriority(defaultPriority());
+            }
+        }
+    }
+
+    private void applyCategories(List<Category> loaded) {
+        if (loaded != null) {
+            categories = byId(loaded, Category::getCompactId);
+        } else {
+            markDirty(DataFile.CATEGORIES);
+        }
+    }
+
+    private void applyPriorities(Future<List<Priority>> loaded) {
+        try {
+            List<Priority> parsed = await(loaded);
+            if (parsed != null) {
+                priorities = byId(parsed, Priority::getCompactId);
+                dirty.remove(DataFile.PRIORITIES);
             }
+        } catch (Exception e) {
+            e.printStackTrace();
+            priorities = new LinkedHashMap<>();
         }
         initializeDefaultPriority();
     }
 
-    private void loadReminders() throws IOException {
-        Path path = Paths.get(DATA_DIR, "reminders.json");
-        if (Files.exists(path)) {
-            JsonNode rootNode = objectMapper.readTree(path.toFile());
-            JsonNode remindersNode = rootNode.get("reminders");
-            if (remindersNode != null) {
-                reminders = new ArrayList<>(Arrays.asList(objectMapper.treeToValue(remindersNode, Reminder[].class)));
+    private void applyTasks(List<Task> loaded) {
+        if (loaded != null) {
+            tasks = byId(loaded, Task::getCompactId);
+            // Link tasks with categories and priorities
+            for (Task task : tasks.values()) {
+                linkTask(task);
             }
+        } else {
+            markDirty(DataFile.TASKS);
         }
     }
 
-    private Category findCategoryById(String id) {
-        return categories.stream()
-                .filter(c -> c.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+    private void applyReminders(List<Reminder> loaded) {
+        if (loaded != null) {
+            reminders = byId(loaded, Reminder::getCompactId);
+            // Resolve each reminder to the live task; reminders of tasks that no longer exist are dropped
+            Iterator<Reminder> iterator = reminders.values().iterator();
+            while (iterator.hasNext()) {
+                Reminder reminder = iterator.next();
+                Task task = tasks.get(reminder.getTaskCompactId());
+                if (task != null) {
+                    reminder.setTask(task);
+                } else {
+                    iterator.remove();
+                    markDirty(DataFile.REMINDERS);
+                }
+            }
+        } else {
+            markDirty(DataFile.REMINDERS);
+        }
     }
 
-    private Priority findPriorityById(String id) {
-        return priorities.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst()
-                .orElseGet(this::getDefaultPriority);
+    private static <T> Map<CompactId, T> byId(List<T> values, Function<T, CompactId> id) {
+        Map<CompactId, T> map = new LinkedHashMap<>();
+        for (T value : values) {
+            map.put(id.apply(value), value);
+        }
+        return map;
     }
 
-    public void saveData() {
+    // Returns null when the file does not exist yet
+    private <T> List<T> parseDataFile(DataFile file, Class<T> type) throws IOException {
+        Path path = Paths.get(DATA_DIR, file.fileName);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        List<T> values = readDataFile(path, file, type);
+        loadTimings.put(file.fileName, Duration.ofNanos(System.nanoTime() - start));
+        return values;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading data");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Streams the root array element by element so the file is never held as a JsonNode tree
+    private <T> List<T> readDataFile(Path path, DataFile file, Class<T> type) throws IOException {
+        List<T> values = new ArrayList<>();
+        ObjectReader reader = objectMapper.readerFor(type);
+        try (JsonParser parser = objectMapper.createParser(path.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an object at the root of " + file.fileName);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (!field.equals(file.rootField) || token != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    values.add(reader.readValue(parser));
+                }
+            }
+        }
+        return values;
+    }
+
+    private void replayJournal() throws IOException {
+        replaying = true;
+        boolean intact;
         try {
-            saveTasks();
-            saveCategories();
-            savePriorities();
-            saveReminders();
+            intact = journal.replay(this::applyJournalRecord);
+        } finally {
+            replaying = false;
+        }
+        if (!intact || journal.size() >= JOURNAL_COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    private void applyJournalRecord(TaskJournal.Op op, JsonNode data) throws IOException {
+        switch (op) {
+            case ADD_TASK:
+                // A record may already be in the snapshot if it was journaled while a save was writing;
+                // putTask turns that into a replace
+                putTask(linkTask(objectMapper.treeToValue(data, Task.class)));
+                break;
+            case UPDATE_TASK:
+                replaceTask(linkTask(objectMapper.treeToValue(data, Task.class)));
+                break;
+            case DELETE_TASK:
+                findTaskById(CompactId.of(data.asText())).ifPresent(this::removeTask);
+                break;
+            case ADD_CATEGORY:
+                Category addedCategory = objectMapper.treeToValue(data, Category.class);
+                if (categories.containsKey(addedCategory.getCompactId())) {
+                    replaceCategory(addedCategory);
+                } else {
+                    putCategory(addedCategory);
+                }
+                break;
+            case UPDATE_CATEGORY:
+                replaceCategory(objectMapper.treeToValue(data, Category.class));
+                break;
+            case DELETE_CATEGORY:
+                Category category = findCategoryById(CompactId.of(data.asText()));
+                if (category != null) {
+                    removeCategory(category);
+                }
+                break;
+            case ADD_PRIORITY:
+                Priority addedPriority = objectMapper.treeToValue(data, Priority.class);
+                if (priorities.containsKey(addedPriority.getCompactId())) {
+                    replacePriority(addedPriority);
+                } else {
+                    putPriority(addedPriority);
+                }
+                break;
+            case UPDATE_PRIORITY:
+                replacePriority(objectMapper.treeToValue(data, Priority.class));
+                break;
+            case DELETE_PRIORITY:
+                Priority priority = priorities.get(CompactId.of(data.asText()));
+                if (priority != null) {
+                    removePriority(priority);
+                }
+                break;
+            case ADD_REMINDER:
+                Reminder reminder = objectMapper.treeToValue(data, Reminder.class);
+                findTaskById(reminder.getTaskCompactId()).ifPresent(task -> {
+                    reminder.setTask(task);
+                    if (!reminders.containsKey(reminder.getCompactId())) {
+                        putReminder(reminder);
+                    }
+                });
+                break;
+            case DELETE_REMINDER:
+                Reminder removedReminder = reminders.get(CompactId.of(data.asText()));
+                if (removedReminder != null) {
+                    removeReminder(removedReminder);
+                }
+                break;
+            case BATCH:
+                for (JsonNode record : data) {
+                    applyJournalRecord(TaskJournal.Op.valueOf(record.get("op").asText()), record.get("data"));
+                }
+                break;
+        }
+    }
+
+    private void journal(TaskJournal.Op op, Object payload) {
+        if (replaying) {
+            return;
+        }
+        if (batchRecords != null) {
+            batchRecords.add(journal.record(op, payload));
+            return;
+        }
+        appendJournal(op, payload);
+    }
+
+    private void appendJournal(TaskJournal.Op op, Object payload) {
+        try {
+            journal.append(op, payload);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        if (autosave != null) {
+            autosave.changed();
+        }
+        if (journal.size() >= JOURNAL_COMPACTION_THRESHOLD) {
+            compact();
+        }
     }
 
-    private void saveTasks() throws IOException {
-        Path path = Paths.get(DATA_DIR, "tasks.json");
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        rootNode.set("tasks", objectMapper.valueToTree(tasks));
-        objectMapper.writeValue(path.toFile(), rootNode);
+    // Folds the journal into the snapshots, on the autosave thread when one is running. Without one
+    // the save runs on this thread once its write lock is released, since saveData takes the lock.
+    private void compact() {
+        if (autosave != null) {
+            autosave.flushSoon();
+        } else {
+            compactionDue = true;
+        }
     }
 
-    private void saveCategories() throws IOException {
-        Path path = Paths.get(DATA_DIR, "categories.json");
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        rootNode.set("categories", objectMapper.valueToTree(categories));
-        objectMapper.writeValue(path.toFile(), rootNode);
+    private Task linkTask(Task task) {
+        task.setCategory(findCategoryById(task.getCategoryCompactId()));
+        task.setPriority(findPriorityById(task.getPriorityCompactId()));
+        return task;
     }
 
-    private void savePriorities() throws IOException {
-        Path path = Paths.get(DATA_DIR, "priorities.json");
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        rootNode.set("priorities", objectMapper.valueToTree(priorities));
-        objectMapper.writeValue(path.toFile(), rootNode);
+    // Index Maintenance
+    private void indexTask(Task task) {
+        tasksByCategory.add(task);
+        tasksByPriority.add(task);
+        tasksByStatus.add(task);
+        tasksByDeadline.add(task);
+        upcomingTasks.add(task);
+        taskText.add(task);
+        taskBits.add(task);
+        if (columns != null) {
+            columns.add(task);
+        }
+    }
+
+    private void unindexTask(Task task) {
+        tasksByCategory.remove(task);
+        tasksByPriority.remove(task);
+        tasksByStatus.remove(task);
+        tasksByDeadline.remove(task);
+        upcomingTasks.remove(task);
+        taskText.remove(task);
+        taskBits.remove(task);
+        if (columns != null) {
+            columns.remove(task);
+        }
     }
 
-    private void saveReminders() throws IOException {
-        Path path = Paths.get(DATA_DIR, "reminders.json");
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        rootNode.set("reminders", objectMapper.valueToTree(reminders));
-        objectMapper.writeValue(path.toFile(), rootNode);
+    // Moves a task edited in place to the buckets matching its current values
+    private void reindexTask(Task task) {
+        tasksByCategory.update(task);
+        tasksByPriority.update(task);
+        tasksByStatus.update(task);
+        tasksByDeadline.update(task);
+        upcomingTasks.update(task);
+        taskText.update(task);
+        taskBits.update(task);
+        if (columns != null) {
+            columns.update(task);
+        }
     }
 
-    private void updateDelayedTasks() {
-        LocalDate today = LocalDate.now();
-        tasks.stream()
-                .filter(task -> task.getStatus() != TaskStatus.COMPLETED
-                        && task.getDeadline().isBefore(today))
-                .forEach(task -> task.setStatus(TaskStatus.DELAYED));
+    private void rebuildIndexes() {
+        tasksByCategory.clear();
+        tasksByPriority.clear();
+        tasksByStatus.clear();
+        tasksByDeadline.clear();
+        upcomingTasks.clear();
+        taskText.clear();
+        taskBits.clear();
+        remindersByTask.clear();
+        remindersByDate.clear();
+        if (columns != null) {
+            columns.clear();
+        }
+        upcomingHorizon = today().plusDays(7);
+        resetLists();
+        for (Task task : tasks.values()) {
+            indexTask(task);
+            task.getReminders().clear();
+        }
+        for (Reminder reminder : reminders.values()) {
+            // Files written before fire dates were derived may hold a hand-picked date
+            if (updateFireDate(reminder)) {
+                markDirty(DataFile.REMINDERS);
+            }
+            linkReminder(reminder);
+        }
+    }
+
+    // Throws IllegalStateException if any secondary index disagrees with the task store
+    public void verifyIndexes() {
+        long stamp = lock.readLock();
+        try {
+            verifyIndexesLocked();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void verifyIndexesLocked() {
+        tasksByCategory.verify(tasks.values());
+        tasksByPriority.verify(tasks.values());
+        tasksByStatus.verify(tasks.values());
+        tasksByDeadline.verify(tasks.values());
+        upcomingTasks.verify(tasks.values());
+        taskText.verify(tasks.values());
+        taskBits.verify(tasks.values());
+        remindersByTask.verify(reminders.values());
+        remindersByDate.verify(reminders.values());
+        if (columns != null) {
+            columns.verify(tasks.values());
+        }
+        for (Task task : tasks.values()) {
+            if (!new HashSet<>(task.getReminders()).equals(new HashSet<>(remindersByTask.get(task.getCompactId())))) {
+                throw new IllegalStateException("reminder list of task " + task.getId() + " is out of step");
+            }
+        }
     }
+
+    private boolean isUpcoming(Task task) {
+        return task.getStatus() != TaskStatus.COMPLETED
+                && task.getDeadline() != null
+                && !task.getDeadline().isAfter(upcomingHorizon);
+    }
+
+    // The window only ever gains tasks as the date moves forward, so only the newly covered
+    // deadline range is re-filed rather than every task
+    private void advanceUpcomingHorizon() {
+        LocalDate horizon = today().plusDays(7);
+        if (horizon.equals(upcomingHorizon)) {
+            return;
+        }
+        long from = Math.min(horizon.toEpochDay(), upcomingHorizon.toEpochDay()) + 1;
+        long to = Math.max(horizon.toEpochDay(), upcomingHorizon.toEpochDay());
+        upcomingHorizon = horizon;
+        for (Task task : tasksByDeadline.range(from, to)) {
+            upcomingTasks.update(task);
+        }
+    }
+
+    private void refreshCounters() {
+        if (undoLog != null) {
+            // A batch publishes its counters once, after the last operation
+            return;
+        }
+        advanceUpcomingHorizon();
+        counters.update(tasks.size(), tasksByStatus.count(TaskStatus.COMPLETED),
+                tasksByStatus.count(TaskStatus.DELAYED), upcomingTasks.count(Boolean.TRUE));
+    }
+
+    private Optional<Task> findTaskById(CompactId id) {
+        return Optional.ofNullable(id == null ? null : tasks.get(id));
+    }
+
+    private Category findCategoryById(CompactId id) {
+        return id == null ? null : categories.get(id);
+    }
+
+    private Priority findPriorityById(CompactId id) {
+        Priority priority = id == null ? null : priorities.get(id);
+        return priority != null ? priority : defaultPriority();
+    }
+
+    // Under the service lock a save only takes O(1) persistent views of the dirty collections and
+    // rotates the journal; serializing and file I/O happen after, so an autosave on a background
+    // thread never blocks callers mutating the store for longer than that.
+    public void saveData() {
+        synchronized (saveLock) {
+            Map<DataFile, List<?>> pending = new EnumMap<>(DataFile.class);
+            int closedSegment;
+            long stamp = writeLock();
+            try {
+                for (DataFile file : dirty) {
+                    pending.put(file, viewOf(file));
+                }
+                dirty.clear();
+                // Records from here on go to a new segment; the closed ones are covered by this copy
+                try {
+                    closedSegment = journal.rotate();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    closedSegment = -1;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            Set<DataFile> unsaved = EnumSet.noneOf(DataFile.class);
+            unsaved.addAll(pending.keySet());
+            try {
+                for (Map.Entry<DataFile, List<?>> entry : pending.entrySet()) {
+                    writeDataFile(entry.getKey(), entry.getValue());
+                    unsaved.remove(entry.getKey());
+                }
+                if (closedSegment >= 0) {
+                    journal.deleteSegmentsThrough(closedSegment);
+                }
+            } catch (IOException e) {
+                stamp = writeLock();
+                try {
+                    dirty.addAll(unsaved);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void setSyncOnSave(boolean syncOnSave) {
+        this.syncOnSave = syncOnSave;
+    }
+
+    // Autosave Operations
+    public void startAutosave(Duration debounce, int maxPendingChanges, Duration maxDelay) {
+        stopAutosave();
+        write(() -> autosave = new AutosaveScheduler(this::saveData, debounce, maxPendingChanges, maxDelay));
+    }
+
+    public void stopAutosave() {
+        AutosaveScheduler current;
+        long stamp = writeLock();
+        try {
+            current = autosave;
+            autosave = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    public int getPendingChangeCount() {
+        AutosaveScheduler current = autosave;
+        return current == null ? 0 : current.getPendingChanges();
+    }
+
+    public Duration getLastFlushLatency() {
+        AutosaveScheduler current = autosave;
+        return current == null ? Duration.ZERO : current.getLastFlushLatency();
+    }
+
+    public long getFlushCount() {
+        AutosaveScheduler current = autosave;
+        return current == null ? 0 : current.getFlushCount();
+    }
+
+    private void markDirty(DataFile file) {
+        dirty.add(file);
+    }
+
+    private List<?> viewOf(DataFile file) {
+        switch (file) {
+            case TASKS:
+                return taskList.view();
+            case CATEGORIES:
+                return categoryList.view();
+            case PRIORITIES:
+                return priorityList.view();
+            default:
+                return reminderList.view();
+        }
+    }
+
+    // Writes to a temp file and renames it over the target, so a crash never leaves a truncated file
+    private void writeDataFile(DataFile file, List<?> values) throws IOException {
+        Path path = Paths.get(DATA_DIR, file.fileName);
+        Path tempPath = Paths.get(DATA_DIR, file.fileName + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempPath.toFile());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName(file.rootField);
+            objectMapper.writeValue(generator, values);
+            generator.writeEndObject();
+            generator.flush();
+            if (syncOnSave) {
+                out.getFD().sync();
+            }
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
 }
\ No newline at end of file
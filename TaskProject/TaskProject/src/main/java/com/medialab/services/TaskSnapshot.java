@@ -0,0 +1,34 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Reminder;
+import com.medialab.models.Task;
+
+import java.util.List;
+
+// Read-only view of the whole store at one version, taken in a single critical section so the four
+// lists agree with each other. The lists are views of persistent trees, so taking one copies nothing and
+// later writes never show through. The entities themselves are the live objects.
+public final class TaskSnapshot {
+    private final long version;
+    private final List<Task> tasks;
+    private final List<Category> categories;
+    private final List<Priority> priorities;
+    private final List<Reminder> reminders;
+
+    TaskSnapshot(long version, List<Task> tasks, List<Category> categories, List<Priority> priorities,
+                 List<Reminder> reminders) {
+        this.version = version;
+        this.tasks = tasks;
+        this.categories = categories;
+        this.priorities = priorities;
+        this.reminders = reminders;
+    }
+
+    public long getVersion() { return version; }
+    public List<Task> getTasks() { return tasks; }
+    public List<Category> getCategories() { return categories; }
+    public List<Priority> getPriorities() { return priorities; }
+    public List<Reminder> getReminders() { return reminders; }
+}
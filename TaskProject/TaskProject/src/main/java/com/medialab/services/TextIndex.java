@@ -0,0 +1,143 @@
+package com.medialab.services;
+
+import com.medialab.models.CompactId;
+import com.medialab.models.Task;
+
+import java.util.*;
+
+// Inverted index from lower-cased word tokens of a task's title and description to the task.
+// Tokens are kept sorted so a query term matches every token it is a prefix of.
+class TextIndex {
+    private final NavigableMap<String, Map<CompactId, Task>> postings = new TreeMap<>();
+    // Kept as a plain array per task; a set per task would cost several times the heap
+    private final Map<CompactId, String[]> tokensByTask = new HashMap<>();
+
+    void add(Task task) {
+        Set<String> tokens = tokensOf(task);
+        tokensByTask.put(task.getCompactId(), tokens.toArray(new String[0]));
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new LinkedHashMap<>()).put(task.getCompactId(), task);
+        }
+    }
+
+    void remove(Task task) {
+        String[] tokens = tokensByTask.remove(task.getCompactId());
+        if (tokens != null) {
+            for (String token : tokens) {
+                removePosting(token, task.getCompactId());
+            }
+        }
+    }
+
+    // Only touches the tokens that were added or dropped by the edit
+    void update(Task task) {
+        String[] previous = tokensByTask.get(task.getCompactId());
+        if (previous == null) {
+            add(task);
+            return;
+        }
+        Set<String> current = tokensOf(task);
+        for (String token : previous) {
+            if (!current.contains(token)) {
+                removePosting(token, task.getCompactId());
+            }
+        }
+        for (String token : current) {
+            postings.computeIfAbsent(token, t -> new LinkedHashMap<>()).put(task.getCompactId(), task);
+        }
+        tokensByTask.put(task.getCompactId(), current.toArray(new String[0]));
+    }
+
+    void clear() {
+        postings.clear();
+        tokensByTask.clear();
+    }
+
+    // Tasks that, for every term of the query, have a token starting with that term.
+    // Returns null when the query contains no searchable term.
+    Map<CompactId, Task> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Map<CompactId, Task> result = null;
+        for (String term : terms) {
+            Map<CompactId, Task> matches = new LinkedHashMap<>();
+            for (Map<CompactId, Task> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                if (result == null) {
+                    matches.putAll(posting);
+                } else {
+                    for (CompactId id : posting.keySet()) {
+                        Task task = result.get(id);
+                        if (task != null) {
+                            matches.put(id, task);
+                        }
+                    }
+                }
+            }
+            result = matches;
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    void verify(Collection<Task> all) {
+        if (tokensByTask.size() != all.size()) {
+            throw new IllegalStateException("text index holds " + tokensByTask.size()
+                    + " tasks, store holds " + all.size());
+        }
+        for (Task task : all) {
+            Set<String> tokens = tokensOf(task);
+            String[] indexed = tokensByTask.get(task.getCompactId());
+            if (indexed == null || !tokens.equals(new HashSet<>(Arrays.asList(indexed)))) {
+                throw new IllegalStateException("text index has stale tokens for " + task.getCompactId());
+            }
+            for (String token : tokens) {
+                Map<CompactId, Task> posting = postings.get(token);
+                if (posting == null || posting.get(task.getCompactId()) != task) {
+                    throw new IllegalStateException("text index is missing " + task.getCompactId() + " under " + token);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                current.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static Set<String> tokensOf(Task task) {
+        Set<String> tokens = new HashSet<>(tokenize(task.getTitle()));
+        tokens.addAll(tokenize(task.getDescription()));
+        return tokens;
+    }
+
+    private void removePosting(String token, CompactId taskId) {
+        Map<CompactId, Task> posting = postings.get(token);
+        if (posting != null) {
+            posting.remove(taskId);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Reminder;
+import com.medialab.models.Task;
+import com.medialab.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mixed readers and writers against the shared service; afterwards every secondary index must agree
+// with the task store and no reader may have seen an exception.
+class TaskServiceStressTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPERATIONS = 2000;
+
+    @Test
+    void concurrentReadersAndWritersKeepIndexesConsistent() throws Exception {
+        TaskService service = TaskService.getInstance();
+        service.loadData();
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Category category = new Category();
+            category.setName("Stress " + i);
+            service.addCategory(category);
+            categories.add(category);
+        }
+        Priority priority = service.getPriorities().get(0);
+
+        Queue<Task> live = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Random random = new Random(i);
+            workers.add(pool.submit(() -> run(start, failures, () ->
+                    write(service, random, categories, priority, live))));
+        }
+        for (int i = 0; i < READERS; i++) {
+            Random random = new Random(100 + i);
+            workers.add(pool.submit(() -> run(start, failures, () -> read(service, random, categories))));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertTrue(failures.isEmpty(), () -> "workers failed: " + failures);
+        service.verifyIndexes();
+        assertEquals(service.getAllTasks().size(), service.getTotalTasksCount());
+    }
+
+    private static void run(CountDownLatch start, Queue<Throwable> failures, Runnable operation) {
+        try {
+            start.await();
+            for (int i = 0; i < OPERATIONS; i++) {
+                operation.run();
+            }
+        } catch (Throwable e) {
+            failures.add(e);
+        }
+    }
+
+    private static void write(TaskService service, Random random, List<Category> categories, Priority priority,
+                              Queue<Task> live) {
+        int op = random.nextInt(10);
+        if (op < 5) {
+            Task task = new Task();
+            task.setTitle("stress " + random.nextInt(1000));
+            task.setCategory(categories.get(random.nextInt(categories.size())));
+            task.setPriority(priority);
+            task.setDeadline(LocalDate.now().plusDays(random.nextInt(20) - 10));
+            service.addTask(task);
+            live.add(task);
+            if (random.nextBoolean()) {
+                Reminder reminder = new Reminder();
+                reminder.setTask(task);
+                reminder.setType(Reminder.ReminderType.ONE_DAY);
+                service.addReminder(reminder);
+            }
+        } else if (op < 8) {
+            Task task = live.poll();
+            if (task != null) {
+                Task edited = new Task(task.getCompactId());
+                edited.setTitle("edited " + random.nextInt(1000));
+                edited.setCategory(categories.get(random.nextInt(categories.size())));
+                edited.setPriority(priority);
+                edited.setDeadline(LocalDate.now().plusDays(random.nextInt(20) - 10));
+                edited.setStatus(random.nextBoolean() ? TaskStatus.COMPLETED : TaskStatus.IN_PROGRESS);
+                service.updateTask(edited);
+                live.add(edited);
+            }
+        } else {
+            Task task = live.poll();
+            if (task != null) {
+                service.deleteTask(task);
+            }
+        }
+    }
+
+    private static void read(TaskService service, Random random, List<Category> categories) {
+        Category category = categories.get(random.nextInt(categories.size()));
+        switch (random.nextInt(6)) {
+            case 0:
+                service.getAllTasks().forEach(Task::getTitle);
+                break;
+            case 1:
+                service.searchTasks("stress", category, null);
+                break;
+            case 2:
+                service.getTotalTasksCount();
+                service.getCompletedTasksCount();
+                service.getUpcomingTasksCount();
+                break;
+            case 3:
+                service.countTasks(TaskStatus.COMPLETED, category, null);
+                break;
+            case 4:
+                service.query(TaskQuery.builder().status(TaskStatus.OPEN).category(category)
+                        .sortBy(TaskQuery.SortKey.TITLE).page(0, 20).build());
+                break;
+            default:
+                service.getRemindersDueBetween(LocalDate.now(), LocalDate.now().plusDays(7));
+                break;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.medialab.services;
+
+import com.medialab.models.Category;
+import com.medialab.models.Priority;
+import com.medialab.models.Reminder;
+import com.medialab.models.Task;
+import com.medialab.models.TaskStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Regression checks against the shared service; each test works on tasks of its own
+class TaskServiceTest {
+    private static TaskService service;
+    private static Category category;
+
+    @BeforeAll
+    static void load() {
+        service = TaskService.getInstance();
+        service.loadData();
+        category = new Category();
+        category.setName("Regression");
+        service.addCategory(category);
+    }
+
+    @Test
+    void reAddingAnExistingIdMovesItsReminders() {
+        Task original = task(new Task(), "re-added", LocalDate.now().plusDays(5));
+        service.addTask(original);
+        Reminder reminder = new Reminder();
+        reminder.setTask(original);
+        reminder.setType(Reminder.ReminderType.ONE_DAY);
+        service.addReminder(reminder);
+
+        Task readded = task(new Task(original.getCompactId()), "re-added again", LocalDate.now().plusDays(6));
+        service.addTask(readded);
+
+        List<Reminder> reminders = service.getRemindersForTask(readded);
+        assertEquals(1, reminders.size());
+        assertSame(readded, reminders.get(0).getTask());
+        assertEquals(1, readded.getReminders().size());
+        service.verifyIndexes();
+    }
+
+    @Test
+    void failedBatchLeavesOrderAndVersionsUntouched() {
+        Priority low = new Priority();
+        low.setName("Rollback");
+        service.addPriority(low);
+        Task first = task(new Task(), "rollback first", LocalDate.now().plusDays(10));
+        Task second = task(new Task(), "rollback second", LocalDate.now().plusDays(10));
+        Task third = task(new Task(), "rollback third", LocalDate.now().plusDays(10));
+        third.setPriority(low);
+        service.addTask(first);
+        service.addTask(second);
+        service.addTask(third);
+        Reminder reminder = new Reminder();
+        reminder.setTask(second);
+        reminder.setType(Reminder.ReminderType.ONE_DAY);
+        service.addReminder(reminder);
+
+        List<String> order = taskIds();
+        long thirdVersion = third.getVersion();
+        long reminderVersion = reminder.getVersion();
+        LocalDate reminderDate = reminder.getReminderDate();
+
+        Task moved = task(new Task(second.getCompactId()), "rollback moved", LocalDate.now().plusDays(20));
+        // A task without a reminder list fails inside the batch, after the earlier operations applied
+        Task broken = task(new Task(third.getCompactId()), "rollback broken", LocalDate.now().plusDays(10));
+        broken.setReminders(null);
+        assertThrows(RuntimeException.class, () -> service.applyBatch(batch -> batch
+                .deleteTask(first)
+                .deletePriority(low)
+                .updateTask(moved)
+                .updateTask(broken)));
+
+        assertEquals(order, taskIds());
+        assertSame(low, third.getPriority());
+        assertEquals(thirdVersion, third.getVersion());
+        assertSame(second, reminder.getTask());
+        assertEquals(reminderVersion, reminder.getVersion());
+        assertEquals(reminderDate, reminder.getReminderDate());
+        service.verifyIndexes();
+    }
+
+    @Test
+    void searchWithoutIndexableTermsMatchesTitleSubstrings() {
+        Task dashed = task(new Task(), "search well-known", LocalDate.now().plusDays(10));
+        service.addTask(dashed);
+        service.addTask(task(new Task(), "search plain", LocalDate.now().plusDays(10)));
+
+        List<Task> found = service.searchTasks("-", category, null);
+        assertTrue(found.contains(dashed));
+        assertTrue(found.stream().allMatch(task -> task.getTitle().contains("-")));
+    }
+
+    @Test
+    void dayRolloverDelaysTasksThatFellDueUnderAFixedClock() {
+        LocalDate today = LocalDate.now();
+        try {
+            service.setClock(fixedAt(today));
+            service.loadData();
+            Task due = task(new Task(), "rollover due", today.plusDays(1));
+            Task done = task(new Task(), "rollover done", today.plusDays(1));
+            done.setStatus(TaskStatus.COMPLETED);
+            Task later = task(new Task(), "rollover later", today.plusDays(5));
+            service.addTask(due);
+            service.addTask(done);
+            service.addTask(later);
+            int delayedBefore = service.getDelayedTasksCount();
+
+            service.setClock(fixedAt(today.plusDays(3)));
+            List<Task> delayed = service.runDayRollover();
+
+            assertTrue(delayed.contains(due));
+            assertFalse(delayed.contains(done));
+            assertFalse(delayed.contains(later));
+            assertEquals(TaskStatus.DELAYED, due.getStatus());
+            assertEquals(TaskStatus.COMPLETED, done.getStatus());
+            assertEquals(TaskStatus.OPEN, later.getStatus());
+            assertEquals(delayedBefore + delayed.size(), service.getDelayedTasksCount());
+            assertEquals(service.getDelayedTasksCount(), service.getCounters().delayedProperty().get());
+            assertEquals(service.getUpcomingTasksCount(), service.getCounters().upcomingProperty().get());
+            // A second rollover on the same day has nothing left to do
+            assertTrue(service.runDayRollover().isEmpty());
+            service.verifyIndexes();
+        } finally {
+            service.setClock(Clock.systemDefaultZone());
+            service.loadData();
+        }
+    }
+
+    private static Clock fixedAt(LocalDate day) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Clock.fixed(day.atTime(12, 0).atZone(zone).toInstant(), zone);
+    }
+
+    private static List<String> taskIds() {
+        return service.getAllTasks().stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    private static Task task(Task task, String title, LocalDate deadline) {
+        task.setTitle(title);
+        task.setCategory(category);
+        task.setPriority(service.getPriorities().get(0));
+        task.setDeadline(deadline);
+        task.setStatus(TaskStatus.OPEN);
+        return task;
+    }
+}